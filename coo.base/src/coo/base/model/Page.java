@@ -32,6 +32,8 @@ public class Page<T> implements Serializable {
 	private List<T> contents = new ArrayList<T>();
 	/** 页数序号 */
 	private List<Integer> indexs = new ArrayList<Integer>();
+	/** 总记录数是否经过统计，未统计时总记录数只是根据当前页推算出的最小值 */
+	private Boolean counted = true;
 
 	/**
 	 * 初始化一个新的分页对象，该构造方法通常用于生成一个空的分页对象。
@@ -149,4 +151,21 @@ public class Page<T> implements Serializable {
 	public void setIndexs(List<Integer> indexs) {
 		this.indexs = indexs;
 	}
+
+	public Boolean getCounted() {
+		return counted;
+	}
+
+	public void setCounted(Boolean counted) {
+		this.counted = counted;
+	}
+
+	/**
+	 * 判断是否是游标分页对象。游标分页对象没有页码，只能逐页向前或向后翻页。
+	 * 
+	 * @return 返回是否是游标分页对象。
+	 */
+	public Boolean getSeek() {
+		return false;
+	}
 }
@@ -0,0 +1,122 @@
+package coo.base.model;
+
+import coo.base.util.StringUtils;
+
+/**
+ * 游标分页对象。<br/>
+ * 游标分页以上一页最后一条（或下一页第一条）记录的排序值和ID作为查询起点，不使用偏移量，翻页耗时与页码深度无关。<br/>
+ * 游标分页不统计总记录数，只能逐页向前或向后翻页。
+ * 
+ * @param <T>
+ *            分页对象中包含内容的对象类型
+ */
+public class SeekPage<T> extends Page<T> {
+	private static final long serialVersionUID = -3208571296453425573L;
+	/** 向后翻页游标前缀 */
+	public static final String AFTER = "n:";
+	/** 向前翻页游标前缀 */
+	public static final String BEFORE = "p:";
+	/** 当前页游标 */
+	private String cursor;
+	/** 上一页游标 */
+	private String prevCursor;
+	/** 下一页游标 */
+	private String nextCursor;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param pageSize
+	 *            每页记录数
+	 * @param cursor
+	 *            当前页游标，为空时表示第一页
+	 */
+	public SeekPage(Integer pageSize, String cursor) {
+		super(pageSize);
+		setCounted(false);
+		if (isValid(cursor)) {
+			this.cursor = cursor;
+		}
+	}
+
+	/**
+	 * 生成向后翻页的游标。
+	 * 
+	 * @param id
+	 *            当前页最后一条记录的ID
+	 * @return 返回向后翻页的游标。
+	 */
+	public static String after(Object id) {
+		return AFTER + id;
+	}
+
+	/**
+	 * 生成向前翻页的游标。
+	 * 
+	 * @param id
+	 *            当前页第一条记录的ID
+	 * @return 返回向前翻页的游标。
+	 */
+	public static String before(Object id) {
+		return BEFORE + id;
+	}
+
+	@Override
+	public Boolean getSeek() {
+		return true;
+	}
+
+	/**
+	 * 判断当前页是否是从游标位置向前翻页获取的。
+	 * 
+	 * @return 返回当前页是否是向前翻页获取的。
+	 */
+	public Boolean isBackward() {
+		return cursor != null && cursor.startsWith(BEFORE);
+	}
+
+	/**
+	 * 获取当前页游标指向的记录ID。
+	 * 
+	 * @return 返回当前页游标指向的记录ID，如果当前页是第一页则返回null。
+	 */
+	public String getCursorId() {
+		if (cursor == null) {
+			return null;
+		}
+		return cursor.substring(AFTER.length());
+	}
+
+	/**
+	 * 判断游标是否有效。
+	 * 
+	 * @param cursor
+	 *            游标
+	 * @return 返回游标是否有效。
+	 */
+	private Boolean isValid(String cursor) {
+		return StringUtils.isNotBlank(cursor)
+				&& cursor.length() > AFTER.length()
+				&& (cursor.startsWith(AFTER) || cursor.startsWith(BEFORE));
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public String getPrevCursor() {
+		return prevCursor;
+	}
+
+	public void setPrevCursor(String prevCursor) {
+		this.prevCursor = prevCursor;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
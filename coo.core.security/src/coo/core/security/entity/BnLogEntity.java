@@ -22,6 +22,7 @@ import coo.base.util.BeanUtils;
 import coo.base.util.DateUtils;
 import coo.base.util.StringUtils;
 import coo.core.hibernate.search.DateBridge;
+import coo.core.hibernate.search.NGramBridge;
 import coo.core.model.UuidEntity;
 import coo.core.security.annotations.LogBean;
 import coo.core.security.annotations.LogField;
@@ -33,17 +34,17 @@ import coo.core.security.model.LogData;
 @MappedSuperclass
 public abstract class BnLogEntity extends UuidEntity {
 	/** 创建人 */
-	@Field(analyze = Analyze.NO)
+	@Field(analyze = Analyze.NO, bridge = @FieldBridge(impl = NGramBridge.class))
 	private String creator;
 	/** 创建时间 */
 	@Temporal(TemporalType.TIMESTAMP)
 	@Field(analyze = Analyze.NO, bridge = @FieldBridge(impl = DateBridge.class))
 	private Date createDate;
 	/** 实体ID */
-	@Field(analyze = Analyze.NO)
+	@Field(analyze = Analyze.NO, bridge = @FieldBridge(impl = NGramBridge.class))
 	private String entityId;
 	/** 日志信息 */
-	@Field(analyze = Analyze.NO)
+	@Field(analyze = Analyze.NO, bridge = @FieldBridge(impl = NGramBridge.class))
 	private String message;
 	/** 原数据 */
 	@Field
@@ -0,0 +1,71 @@
+package coo.core.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读库路由上下文。<br/>
+ * 记录当前线程是否已执行过写事务，执行过写事务后当前线程的只读事务也路由到主库，避免读取到尚未同步到读库的数据。<br/>
+ * 在请求中（调用begin方法后）标记在请求结束调用clear方法时清除；不在请求中的线程（如定时任务、异步任务的线程）在写事务结束时清除标记，避免线程池中的线程一直路由到主库。
+ */
+public abstract class ReplicaContext {
+	private static final ThreadLocal<Boolean> PRIMARY_STICKY = new ThreadLocal<Boolean>();
+	private static final ThreadLocal<Boolean> REQUEST_SCOPED = new ThreadLocal<Boolean>();
+
+	/**
+	 * 开始一个请求范围的路由上下文，标记在调用clear方法之前跨事务有效。
+	 */
+	public static void begin() {
+		PRIMARY_STICKY.remove();
+		REQUEST_SCOPED.set(true);
+	}
+
+	/**
+	 * 标记当前线程后续的事务都路由到主库。<br/>
+	 * 不在请求范围内时，如果当前有事务同步，在当前事务结束时清除标记。
+	 */
+	public static void stickToPrimary() {
+		if (isPrimarySticky()) {
+			return;
+		}
+		PRIMARY_STICKY.set(true);
+		if (!isRequestScoped()
+				&& TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+						@Override
+						public void afterCompletion(int status) {
+							if (!isRequestScoped()) {
+								clear();
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * 判断当前线程是否已标记为路由到主库。
+	 * 
+	 * @return 返回当前线程是否已标记为路由到主库。
+	 */
+	public static Boolean isPrimarySticky() {
+		return Boolean.TRUE.equals(PRIMARY_STICKY.get());
+	}
+
+	/**
+	 * 判断当前线程是否在请求范围的路由上下文中。
+	 * 
+	 * @return 返回当前线程是否在请求范围的路由上下文中。
+	 */
+	public static Boolean isRequestScoped() {
+		return Boolean.TRUE.equals(REQUEST_SCOPED.get());
+	}
+
+	/**
+	 * 清除当前线程的路由标记，并结束请求范围的路由上下文。
+	 */
+	public static void clear() {
+		PRIMARY_STICKY.remove();
+		REQUEST_SCOPED.remove();
+	}
+}
@@ -0,0 +1,169 @@
+package coo.core.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.alibaba.druid.pool.DruidDataSource;
+
+import coo.base.exception.UncheckedException;
+import coo.base.util.StringUtils;
+
+/**
+ * 读写分离路由数据源。<br/>
+ * 只读事务路由到读库，其它情况路由到主库。当前线程执行过写事务后，后续的只读事务也路由到主库，直到请求结束，不在请求中时直到写事务结束。<br/>
+ * 事务开始时还未设置只读标记，因此该数据源需要通过LazyConnectionDataSourceProxy包装后使用，使实际获取连接延迟到第一次执行语句时。
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements
+		InitializingBean, DisposableBean {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** 主库数据源 */
+	private DataSource primary;
+	/** 读库数据源 */
+	private List<DataSource> replicas = new ArrayList<DataSource>();
+	/** 读库链接地址，多个地址以逗号分隔，读库连接池复制主库连接池的配置 */
+	private String replicaUrls;
+	/** 读库选择策略 */
+	private ReplicaStrategy strategy = ReplicaStrategy.ROUND_ROBIN;
+	/** 根据链接地址创建的读库连接池 */
+	private List<DruidDataSource> createdReplicas = new ArrayList<DruidDataSource>();
+	private AtomicInteger counter = new AtomicInteger();
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (StringUtils.isBlank(replicaUrls)) {
+			return;
+		}
+		if (!(primary instanceof DruidDataSource)) {
+			throw new UncheckedException("根据链接地址创建读库时主库必须是DruidDataSource。");
+		}
+		for (String url : replicaUrls.split(",")) {
+			if (StringUtils.isNotBlank(url)) {
+				DruidDataSource replica = ((DruidDataSource) primary)
+						.cloneDruidDataSource();
+				replica.setUrl(url.trim());
+				replica.init();
+				createdReplicas.add(replica);
+				replicas.add(replica);
+				log.info("添加读库[{}]。", url.trim());
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		for (DruidDataSource replica : createdReplicas) {
+			replica.close();
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return determineDataSource().getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password)
+			throws SQLException {
+		return determineDataSource().getConnection(username, password);
+	}
+
+	/**
+	 * 确定当前使用的数据源。
+	 * 
+	 * @return 返回当前使用的数据源。
+	 */
+	protected DataSource determineDataSource() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return primary;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			ReplicaContext.stickToPrimary();
+			return primary;
+		}
+		if (replicas.isEmpty() || ReplicaContext.isPrimarySticky()) {
+			return primary;
+		}
+		return selectReplica();
+	}
+
+	/**
+	 * 根据读库选择策略选择一个读库。
+	 * 
+	 * @return 返回选中的读库。
+	 */
+	private DataSource selectReplica() {
+		if (strategy == ReplicaStrategy.LEAST_ACTIVE) {
+			DataSource selected = null;
+			int minActiveCount = Integer.MAX_VALUE;
+			for (DataSource replica : replicas) {
+				int activeCount = getActiveCount(replica);
+				if (activeCount < minActiveCount) {
+					selected = replica;
+					minActiveCount = activeCount;
+				}
+			}
+			return selected;
+		}
+		int index = (counter.getAndIncrement() & Integer.MAX_VALUE)
+				% replicas.size();
+		return replicas.get(index);
+	}
+
+	/**
+	 * 获取数据源的活动连接数，非Druid数据源无法统计活动连接数时返回0。
+	 * 
+	 * @param dataSource
+	 *            数据源
+	 * @return 返回数据源的活动连接数。
+	 */
+	private int getActiveCount(DataSource dataSource) {
+		if (dataSource instanceof DruidDataSource) {
+			return ((DruidDataSource) dataSource).getActiveCount();
+		}
+		return 0;
+	}
+
+	public DataSource getPrimary() {
+		return primary;
+	}
+
+	public void setPrimary(DataSource primary) {
+		this.primary = primary;
+	}
+
+	public List<DataSource> getReplicas() {
+		return replicas;
+	}
+
+	public void setReplicas(List<DataSource> replicas) {
+		this.replicas = replicas;
+	}
+
+	public String getReplicaUrls() {
+		return replicaUrls;
+	}
+
+	public void setReplicaUrls(String replicaUrls) {
+		this.replicaUrls = replicaUrls;
+	}
+
+	public ReplicaStrategy getStrategy() {
+		return strategy;
+	}
+
+	public void setStrategy(ReplicaStrategy strategy) {
+		this.strategy = strategy;
+	}
+}
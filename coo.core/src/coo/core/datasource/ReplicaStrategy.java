@@ -0,0 +1,11 @@
+package coo.core.datasource;
+
+/**
+ * 读库选择策略。
+ */
+public enum ReplicaStrategy {
+	/** 轮询 */
+	ROUND_ROBIN,
+	/** 最少活动连接 */
+	LEAST_ACTIVE
+}
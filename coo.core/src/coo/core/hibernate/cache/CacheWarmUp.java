@@ -0,0 +1,17 @@
+package coo.core.hibernate.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 二级缓存预热注解。<br/>
+ * 标注在启用了二级缓存的业务实体类上，应用启动时由CacheWarmer将该实体的全部记录加载到二级缓存中，适用于角色、机构等数据量小且频繁读取的基础数据。
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CacheWarmUp {
+}
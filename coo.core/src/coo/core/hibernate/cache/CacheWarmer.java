@@ -0,0 +1,174 @@
+package coo.core.hibernate.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import coo.base.util.StringUtils;
+import coo.core.hibernate.dao.ReadOnlyTaskExecutor;
+
+/**
+ * 二级缓存预热组件。<br/>
+ * Spring容器初始化完成时，将标注了CacheWarmUp注解或在db.cache.warmUp.entities中配置（多个类名以逗号分隔）的业务实体的全部记录加载到二级缓存中。
+ * 每个业务实体在ReadOnlyTaskExecutor中以独立的只读事务并行加载，全部加载完成后容器才完成初始化。<br/>
+ * 预热失败只输出警告日志，不影响应用启动。
+ */
+@Component
+public class CacheWarmer implements ApplicationListener<ContextRefreshedEvent> {
+	/** 每加载指定条数的记录后清理Session */
+	private static final int CLEAR_SIZE = 100;
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	@Resource
+	private SessionFactory sessionFactory;
+	@Resource
+	private ReadOnlyTaskExecutor readOnlyTaskExecutor;
+	/** 是否启用预热 */
+	@Value("${db.cache.warmUp.enabled:true}")
+	private Boolean enabled = true;
+	/** 需要预热的业务实体类名，多个类名以逗号分隔 */
+	@Value("${db.cache.warmUp.entities:}")
+	private String entities = "";
+	/** 是否已预热，容器刷新事件会由子容器传递到父容器，只预热一次 */
+	private AtomicBoolean warmed = new AtomicBoolean(false);
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (enabled && warmed.compareAndSet(false, true)) {
+			warmUp();
+		}
+	}
+
+	/**
+	 * 并行预热所有需要预热的业务实体，等待全部完成后返回。
+	 */
+	public void warmUp() {
+		List<EntityPersister> persisters = getWarmUpPersisters();
+		if (persisters.isEmpty()) {
+			return;
+		}
+		long startTime = System.currentTimeMillis();
+		Map<String, Future<Integer>> futures = new LinkedHashMap<String, Future<Integer>>();
+		for (final EntityPersister persister : persisters) {
+			futures.put(persister.getEntityName(),
+					readOnlyTaskExecutor.submit(new Callable<Integer>() {
+						@Override
+						public Integer call() {
+							return warmUp(persister.getEntityName());
+						}
+					}));
+		}
+		int total = 0;
+		for (Entry<String, Future<Integer>> entry : futures.entrySet()) {
+			try {
+				total += entry.getValue().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.warn("预热实体[{}]二级缓存被中断。", entry.getKey());
+			} catch (ExecutionException e) {
+				log.warn("预热实体[" + entry.getKey() + "]二级缓存时发生异常。",
+						e.getCause());
+			}
+		}
+		log.info("预热{}个实体二级缓存共{}条记录，耗时{}ms。", persisters.size(), total,
+				System.currentTimeMillis() - startTime);
+	}
+
+	/**
+	 * 将指定实体的全部记录加载到二级缓存中，需要在事务中调用。
+	 * 
+	 * @param entityName
+	 *            实体名称
+	 * @return 返回加载的记录数。
+	 */
+	private Integer warmUp(String entityName) {
+		long startTime = System.currentTimeMillis();
+		Session session = sessionFactory.getCurrentSession();
+		ScrollableResults results = session.createCriteria(entityName)
+				.setCacheMode(CacheMode.REFRESH).setFetchSize(CLEAR_SIZE)
+				.scroll(ScrollMode.FORWARD_ONLY);
+		int count = 0;
+		try {
+			while (results.next()) {
+				if (++count % CLEAR_SIZE == 0) {
+					session.clear();
+				}
+			}
+		} finally {
+			results.close();
+		}
+		session.clear();
+		log.info("预热实体[{}]二级缓存{}条记录，耗时{}ms。", entityName, count,
+				System.currentTimeMillis() - startTime);
+		return count;
+	}
+
+	/**
+	 * 获取需要预热且启用了二级缓存的实体持久化器。
+	 * 
+	 * @return 返回需要预热的实体持久化器列表。
+	 */
+	private List<EntityPersister> getWarmUpPersisters() {
+		List<String> names = new ArrayList<String>();
+		if (StringUtils.isNotBlank(entities)) {
+			for (String name : Arrays.asList(entities.split(","))) {
+				names.add(name.trim());
+			}
+		}
+		List<EntityPersister> persisters = new ArrayList<EntityPersister>();
+		for (ClassMetadata metadata : sessionFactory.getAllClassMetadata()
+				.values()) {
+			EntityPersister persister = (EntityPersister) metadata;
+			Class<?> entityClass = persister.getMappedClass();
+			if (!entityClass.isAnnotationPresent(CacheWarmUp.class)
+					&& !names.contains(entityClass.getName())
+					&& !names.contains(entityClass.getSimpleName())) {
+				continue;
+			}
+			if (!persister.hasCache()) {
+				log.warn("实体[{}]未启用二级缓存，忽略预热。", entityClass.getName());
+				continue;
+			}
+			persisters.add(persister);
+		}
+		return persisters;
+	}
+
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getEntities() {
+		return entities;
+	}
+
+	public void setEntities(String entities) {
+		this.entities = entities;
+	}
+}
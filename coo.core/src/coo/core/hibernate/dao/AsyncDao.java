@@ -0,0 +1,312 @@
+package coo.core.hibernate.dao;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.annotation.Resource;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
+import coo.base.model.Page;
+
+/**
+ * 异步泛型DAO。<br/>
+ * 由DaoRegister为每个业务实体注册，每个查询在ReadOnlyTaskExecutor的线程池中以新的只读事务执行，多个互不依赖的查询可以同时执行。<br/>
+ * 查询结果在事务结束后成为游离状态，需要访问的延迟加载属性应在查询语句中抓取。<br/>
+ * Criteria和FullTextCriteria绑定创建它的Session，不能跨线程使用，需要此类查询时通过submit方法在任务中调用Dao创建并执行。
+ * 
+ * @param <T>
+ *            业务实体类型
+ */
+public class AsyncDao<T> {
+	private Dao<T> dao;
+	@Resource
+	private ReadOnlyTaskExecutor readOnlyTaskExecutor;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param dao
+	 *            泛型DAO
+	 */
+	public AsyncDao(Dao<T> dao) {
+		this.dao = dao;
+	}
+
+	/**
+	 * 获取对应的泛型DAO。
+	 * 
+	 * @return 返回对应的泛型DAO。
+	 */
+	public Dao<T> getDao() {
+		return dao;
+	}
+
+	/**
+	 * 提交查询任务，任务中可以直接调用Dao的查询方法。
+	 * 
+	 * @param <V>
+	 *            查询结果类型
+	 * @param task
+	 *            查询任务
+	 * @return 返回查询结果的Future对象。
+	 */
+	public <V> ListenableFuture<V> submit(Callable<V> task) {
+		return readOnlyTaskExecutor.submit(task);
+	}
+
+	/**
+	 * 根据指定的ID获取业务实体。
+	 * 
+	 * @param id
+	 *            实体ID
+	 * @return 返回指定ID的业务实体的Future对象。
+	 */
+	public ListenableFuture<T> get(final Serializable id) {
+		return submit(new Callable<T>() {
+			@Override
+			public T call() {
+				return dao.get(id);
+			}
+		});
+	}
+
+	/**
+	 * 获取指定类型的所有业务实体。
+	 * 
+	 * @return 返回所有业务实体的Future对象。
+	 */
+	public ListenableFuture<List<T>> getAll() {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return dao.getAll();
+			}
+		});
+	}
+
+	/**
+	 * 获取指定类型的所有业务实体并进行排序。
+	 * 
+	 * @param orderBy
+	 *            排序的属性名
+	 * @param isAsc
+	 *            是否升序
+	 * @return 返回排序后的所有业务实体的Future对象。
+	 */
+	public ListenableFuture<List<T>> getAll(final String orderBy,
+			final Boolean isAsc) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return dao.getAll(orderBy, isAsc);
+			}
+		});
+	}
+
+	/**
+	 * 根据ID集合批量获取业务实体。
+	 * 
+	 * @param ids
+	 *            ID集合
+	 * @return 返回按ID集合顺序排列的业务实体列表的Future对象。
+	 */
+	public ListenableFuture<List<T>> getAll(
+			final Collection<? extends Serializable> ids) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return dao.getAll(ids);
+			}
+		});
+	}
+
+	/**
+	 * 根据属性的值查找业务实体。
+	 * 
+	 * @param name
+	 *            属性名
+	 * @param value
+	 *            属性值
+	 * @return 返回属性值相符的业务实体集合的Future对象。
+	 */
+	public ListenableFuture<List<T>> findBy(final String name,
+			final Object value) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return dao.findBy(name, value);
+			}
+		});
+	}
+
+	/**
+	 * 根据属性的值查找业务实体并进行排序。
+	 * 
+	 * @param name
+	 *            属性名
+	 * @param value
+	 *            属性值
+	 * @param orderBy
+	 *            排序属性
+	 * @param isAsc
+	 *            是否升序
+	 * @return 返回排序后的属性值相符的业务实体集合的Future对象。
+	 */
+	public ListenableFuture<List<T>> findBy(final String name,
+			final Object value, final String orderBy, final boolean isAsc) {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return dao.findBy(name, value, orderBy, isAsc);
+			}
+		});
+	}
+
+	/**
+	 * 根据属性的值查找唯一的业务实体。
+	 * 
+	 * @param name
+	 *            属性名
+	 * @param value
+	 *            属性值
+	 * @return 返回唯一业务实体的Future对象。
+	 */
+	public ListenableFuture<T> findUnique(final String name, final Object value) {
+		return submit(new Callable<T>() {
+			@Override
+			public T call() {
+				return dao.findUnique(name, value);
+			}
+		});
+	}
+
+	/**
+	 * 根据HQL查询语句进行分页查询。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回分页对象的Future对象。
+	 */
+	public ListenableFuture<Page<T>> findPage(final String hql,
+			final Integer pageNo, final Integer pageSize,
+			final Object... values) {
+		return submit(new Callable<Page<T>>() {
+			@Override
+			public Page<T> call() {
+				return dao.findPage(hql, pageNo, pageSize, values);
+			}
+		});
+	}
+
+	/**
+	 * 根据HQL查询语句进行分页查询，并将查询结果投影为DTO对象。
+	 * 
+	 * @param <D>
+	 *            DTO类型
+	 * @param hql
+	 *            HQL查询语句
+	 * @param dtoClass
+	 *            DTO类
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回DTO分页对象的Future对象。
+	 */
+	public <D> ListenableFuture<Page<D>> findPage(final String hql,
+			final Class<D> dtoClass, final Integer pageNo,
+			final Integer pageSize, final Object... values) {
+		return submit(new Callable<Page<D>>() {
+			@Override
+			public Page<D> call() {
+				return dao.findPage(hql, dtoClass, pageNo, pageSize, values);
+			}
+		});
+	}
+
+	/**
+	 * 全文搜索指定类型的所有业务实体。
+	 * 
+	 * @return 返回所有业务实体的Future对象。
+	 */
+	public ListenableFuture<List<T>> searchAll() {
+		return submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return dao.searchAll();
+			}
+		});
+	}
+
+	/**
+	 * 根据属性的值全文搜索唯一的业务实体。
+	 * 
+	 * @param name
+	 *            属性名
+	 * @param value
+	 *            属性值
+	 * @return 返回唯一业务实体的Future对象。
+	 */
+	public ListenableFuture<T> searchUnique(final String name,
+			final Object value) {
+		return submit(new Callable<T>() {
+			@Override
+			public T call() {
+				return dao.searchUnique(name, value);
+			}
+		});
+	}
+
+	/**
+	 * 获取查询所能获得的对象总数。
+	 * 
+	 * @param hql
+	 *            查询语句
+	 * @param values
+	 *            查询参数
+	 * @return 返回查询结果总数的Future对象。
+	 */
+	public ListenableFuture<Integer> count(final String hql,
+			final Object... values) {
+		return submit(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return dao.count(hql, values);
+			}
+		});
+	}
+
+	/**
+	 * 执行count查询获得记录总数。
+	 * 
+	 * @return 返回记录总数的Future对象。
+	 */
+	public ListenableFuture<Integer> count() {
+		return submit(new Callable<Integer>() {
+			@Override
+			public Integer call() {
+				return dao.count();
+			}
+		});
+	}
+
+	public ReadOnlyTaskExecutor getReadOnlyTaskExecutor() {
+		return readOnlyTaskExecutor;
+	}
+
+	public void setReadOnlyTaskExecutor(
+			ReadOnlyTaskExecutor readOnlyTaskExecutor) {
+		this.readOnlyTaskExecutor = readOnlyTaskExecutor;
+	}
+}
@@ -0,0 +1,109 @@
+package coo.core.hibernate.dao;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页查询总记录数缓存。缓存的总记录数在指定的秒数后过期，适用于可以接受总记录数短时间不精确的列表页面。
+ */
+public class CountCache {
+	/** 最大缓存条目数 */
+	private static final int MAX_SIZE = 1000;
+	private Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * 获取缓存的总记录数。
+	 * 
+	 * @param key
+	 *            缓存键
+	 * @return 返回缓存的总记录数，如果没有缓存或已过期则返回null。
+	 */
+	public Integer get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired()) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.getCount();
+	}
+
+	/**
+	 * 缓存总记录数。
+	 * 
+	 * @param key
+	 *            缓存键
+	 * @param count
+	 *            总记录数
+	 * @param seconds
+	 *            缓存秒数
+	 */
+	public void put(String key, Integer count, Integer seconds) {
+		if (entries.size() >= MAX_SIZE) {
+			removeExpired();
+			if (entries.size() >= MAX_SIZE) {
+				entries.clear();
+			}
+		}
+		entries.put(key, new Entry(count, System.currentTimeMillis()
+				+ seconds * 1000L));
+	}
+
+	/**
+	 * 清空缓存。
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * 移除已过期的缓存条目。
+	 */
+	private void removeExpired() {
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().isExpired()) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * 缓存条目。
+	 */
+	private class Entry {
+		/** 总记录数 */
+		private Integer count;
+		/** 过期时间 */
+		private long expireTime;
+
+		/**
+		 * 构造方法。
+		 * 
+		 * @param count
+		 *            总记录数
+		 * @param expireTime
+		 *            过期时间
+		 */
+		public Entry(Integer count, long expireTime) {
+			this.count = count;
+			this.expireTime = expireTime;
+		}
+
+		/**
+		 * 判断是否已过期。
+		 * 
+		 * @return 返回是否已过期。
+		 */
+		public boolean isExpired() {
+			return System.currentTimeMillis() > expireTime;
+		}
+
+		public Integer getCount() {
+			return count;
+		}
+	}
+}
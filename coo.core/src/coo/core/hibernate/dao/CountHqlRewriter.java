@@ -0,0 +1,287 @@
+package coo.core.hibernate.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.antlr.HqlTokenTypes;
+import org.hibernate.hql.internal.ast.HqlParser;
+import org.hibernate.hql.internal.ast.tree.Node;
+import org.hibernate.metadata.ClassMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import antlr.collections.AST;
+
+/**
+ * count查询HQL语句改写器。<br/>
+ * 使用Hibernate的HQL解析器解析查询语句，去除最外层的order by子句和fetch关键字，生成对应的count查询语句。<br/>
+ * 使用了select distinct或fetch连接的查询统计不重复的记录数，查询实体的标识属性名从SessionFactory的实体元数据中获取。
+ * 改写结果按原查询语句缓存，重复分页查询时不再重新解析。
+ */
+public class CountHqlRewriter {
+	/** 最大缓存语句数 */
+	private static final int MAX_SIZE = 1000;
+	/** 无法改写的查询语句的缓存标记 */
+	private static final String UNSUPPORTED = "";
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private Map<String, String> countHqls = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * 将查询语句改写为count查询语句，查询实体的标识属性名按id处理。
+	 * 
+	 * @param hql
+	 *            查询语句
+	 * @return 返回count查询语句，包含group by子句等无法改写的查询语句返回null。
+	 */
+	public String rewrite(String hql) {
+		return rewrite(hql, null);
+	}
+
+	/**
+	 * 将查询语句改写为count查询语句。
+	 * 
+	 * @param hql
+	 *            查询语句
+	 * @param sessionFactory
+	 *            用于获取查询实体标识属性名的SessionFactory，为null时标识属性名按id处理
+	 * @return 返回count查询语句，包含group by子句等无法改写的查询语句返回null。
+	 */
+	public String rewrite(String hql, SessionFactory sessionFactory) {
+		String countHql = countHqls.get(hql);
+		if (countHql == null) {
+			countHql = parse(hql, sessionFactory);
+			if (countHqls.size() >= MAX_SIZE) {
+				countHqls.clear();
+			}
+			countHqls.put(hql, countHql);
+		}
+		return countHql.isEmpty() ? null : countHql;
+	}
+
+	/**
+	 * 解析查询语句并生成count查询语句。
+	 * 
+	 * @param hql
+	 *            查询语句
+	 * @param sessionFactory
+	 *            SessionFactory
+	 * @return 返回count查询语句，无法改写时返回UNSUPPORTED。
+	 */
+	private String parse(String hql, SessionFactory sessionFactory) {
+		String normalizedHql = normalize(hql);
+		AST query;
+		try {
+			HqlParser parser = HqlParser.getInstance(normalizedHql);
+			parser.statement();
+			parser.getParseErrorHandler().throwQueryException();
+			query = parser.getAST();
+		} catch (Exception e) {
+			log.debug("解析HQL语句[{}]失败，无法改写为count查询。", hql);
+			return UNSUPPORTED;
+		}
+		if (query == null || query.getType() != HqlTokenTypes.QUERY) {
+			return UNSUPPORTED;
+		}
+
+		AST from = null;
+		AST select = null;
+		AST order = null;
+		for (AST node : getChildren(query)) {
+			if (node.getType() == HqlTokenTypes.SELECT_FROM) {
+				for (AST child : getChildren(node)) {
+					if (child.getType() == HqlTokenTypes.FROM) {
+						from = child;
+					} else if (child.getType() == HqlTokenTypes.SELECT) {
+						select = child;
+					}
+				}
+			} else if (node.getType() == HqlTokenTypes.GROUP) {
+				return UNSUPPORTED;
+			} else if (node.getType() == HqlTokenTypes.ORDER) {
+				order = node;
+			}
+		}
+
+		int fromIndex = getIndex(from);
+		int endIndex = order == null ? normalizedHql.length()
+				: getIndex(order);
+		StringBuilder body = new StringBuilder(normalizedHql.substring(
+				fromIndex, endIndex));
+		List<AST> fetches = getFetches(from);
+		Collections.reverse(fetches);
+		for (AST fetch : fetches) {
+			int start = getIndex(fetch) - fromIndex;
+			String fetchClause = body.substring(start).replaceFirst(
+					"^(?i)fetch (all properties )?", "");
+			body.replace(start, body.length(), fetchClause);
+		}
+
+		String rootAlias = getRootAlias(from);
+		String rootId = rootAlias + "." + getRootIdName(from, sessionFactory);
+		String countExpression = "count(*)";
+		if (select == null) {
+			if (!fetches.isEmpty() && rootAlias != null) {
+				countExpression = "count(distinct " + rootId + ")";
+			}
+		} else {
+			AST first = select.getFirstChild();
+			Boolean distinct = first.getType() == HqlTokenTypes.DISTINCT;
+			AST expression = distinct ? first.getNextSibling() : first;
+			if (expression == null) {
+				return UNSUPPORTED;
+			}
+			Boolean rootSelected = expression.getNextSibling() == null
+					&& expression.getType() == HqlTokenTypes.IDENT
+					&& expression.getText().equals(rootAlias);
+			if (distinct) {
+				if (expression.getNextSibling() != null
+						|| expression.getType() == HqlTokenTypes.CONSTRUCTOR) {
+					return UNSUPPORTED;
+				}
+				String selectExpression = rootSelected ? rootId
+						: normalizedHql.substring(
+								getIndex(first) + "distinct".length(),
+								fromIndex).trim();
+				countExpression = "count(distinct " + selectExpression + ")";
+			} else if (rootSelected && !fetches.isEmpty()) {
+				countExpression = "count(distinct " + rootId + ")";
+			}
+		}
+		return "select " + countExpression + " " + body.toString().trim();
+	}
+
+	/**
+	 * 将字符串常量以外的连续空白字符替换为一个空格，使语法树节点的列号与字符位置对应。
+	 * 
+	 * @param hql
+	 *            查询语句
+	 * @return 返回规范化后的查询语句。
+	 */
+	private String normalize(String hql) {
+		StringBuilder builder = new StringBuilder();
+		boolean quoted = false;
+		for (char c : hql.trim().toCharArray()) {
+			if (c == '\'') {
+				quoted = !quoted;
+			}
+			if (!quoted && Character.isWhitespace(c)) {
+				if (builder.charAt(builder.length() - 1) != ' ') {
+					builder.append(' ');
+				}
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 获取from子句中所有fetch关键字节点。
+	 * 
+	 * @param from
+	 *            from子句节点
+	 * @return 返回fetch关键字节点列表。
+	 */
+	private List<AST> getFetches(AST from) {
+		List<AST> fetches = new ArrayList<AST>();
+		for (AST node : getChildren(from)) {
+			for (AST child : getChildren(node)) {
+				if (child.getType() == HqlTokenTypes.FETCH) {
+					fetches.add(child);
+				}
+			}
+		}
+		return fetches;
+	}
+
+	/**
+	 * 获取from子句中第一个实体的别名。
+	 * 
+	 * @param from
+	 *            from子句节点
+	 * @return 返回第一个实体的别名，没有别名时返回null。
+	 */
+	private String getRootAlias(AST from) {
+		AST range = from.getFirstChild();
+		if (range == null || range.getType() != HqlTokenTypes.RANGE) {
+			return null;
+		}
+		for (AST child : getChildren(range)) {
+			if (child.getType() == HqlTokenTypes.ALIAS) {
+				return child.getText();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 获取from子句中第一个实体的标识属性名。
+	 * 
+	 * @param from
+	 *            from子句节点
+	 * @param sessionFactory
+	 *            SessionFactory
+	 * @return 返回第一个实体的标识属性名，无法从实体元数据中获取时返回id。
+	 */
+	private String getRootIdName(AST from, SessionFactory sessionFactory) {
+		AST range = from.getFirstChild();
+		if (sessionFactory == null || range == null
+				|| range.getType() != HqlTokenTypes.RANGE) {
+			return "id";
+		}
+		String entityName = ((SessionFactoryImplementor) sessionFactory)
+				.getImportedClassName(getPath(range.getFirstChild()));
+		ClassMetadata metadata = sessionFactory.getClassMetadata(entityName);
+		if (metadata == null || metadata.getIdentifierPropertyName() == null) {
+			return "id";
+		}
+		return metadata.getIdentifierPropertyName();
+	}
+
+	/**
+	 * 获取以点号分隔的名称节点对应的完整名称。
+	 * 
+	 * @param node
+	 *            名称节点
+	 * @return 返回完整名称。
+	 */
+	private String getPath(AST node) {
+		if (node.getType() == HqlTokenTypes.DOT) {
+			return getPath(node.getFirstChild()) + "."
+					+ getPath(node.getFirstChild().getNextSibling());
+		}
+		return node.getText();
+	}
+
+	/**
+	 * 获取语法树节点的子节点列表。
+	 * 
+	 * @param node
+	 *            语法树节点
+	 * @return 返回子节点列表。
+	 */
+	private List<AST> getChildren(AST node) {
+		List<AST> children = new ArrayList<AST>();
+		for (AST child = node.getFirstChild(); child != null; child = child
+				.getNextSibling()) {
+			children.add(child);
+		}
+		return children;
+	}
+
+	/**
+	 * 获取语法树节点在规范化后的查询语句中的位置。
+	 * 
+	 * @param node
+	 *            语法树节点
+	 * @return 返回语法树节点的位置。
+	 */
+	private int getIndex(AST node) {
+		return ((Node) node).getColumn() - 1;
+	}
+}
@@ -2,45 +2,106 @@ package coo.core.hibernate.dao;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Resource;
 
+import org.apache.lucene.index.IndexNotFoundException;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.FlushMode;
+import org.hibernate.NonUniqueResultException;
 import org.hibernate.Query;
 import org.hibernate.ReplicationMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.criterion.Conjunction;
 import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.CascadeStyle;
+import org.hibernate.engine.spi.CascadingActions;
+import org.hibernate.engine.spi.QueryParameters;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.internal.CriteriaImpl.Subcriteria;
+import org.hibernate.loader.MultipleBagFetchException;
+import org.hibernate.loader.criteria.CriteriaQueryTranslator;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.metadata.CollectionMetadata;
+import org.hibernate.persister.collection.QueryableCollection;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.HibernateProxyHelper;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
 import org.hibernate.search.Search;
 import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.ContainedIn;
+import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
+import org.hibernate.sql.JoinType;
 import org.hibernate.transform.ResultTransformer;
+import org.hibernate.transform.Transformers;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.ComponentType;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import coo.base.constants.Chars;
+import coo.base.exception.UncheckedException;
 import coo.base.model.Page;
+import coo.base.model.SeekPage;
+import coo.base.util.Assert;
 import coo.base.util.BeanUtils;
 import coo.base.util.StringUtils;
+import coo.core.hibernate.detector.QueryBudget;
+import coo.core.hibernate.outbox.OutboxEventEntity;
+import coo.core.hibernate.outbox.OutboxEventListener;
 import coo.core.hibernate.search.FullTextCriteria;
+import coo.core.hibernate.search.SearchCursor;
 
 /**
  * 泛型DAO。
@@ -49,11 +110,36 @@ import coo.core.hibernate.search.FullTextCriteria;
  *            业务实体类型
  */
 public class Dao<T> {
+	private static final int DEFAULT_BATCH_SIZE = 25;
+	private static final int IN_CHUNK_SIZE = 500;
+	private static final CountHqlRewriter COUNT_HQL_REWRITER = new CountHqlRewriter();
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	@Resource
 	private SessionFactory sessionFactory;
 	private Class<T> clazz;
+	/** 分页查询总记录数缓存秒数，为0时不缓存 */
+	@Value("${db.countCacheSeconds:0}")
+	private Integer countCacheSeconds = 0;
+	private CountCache countCache = new CountCache();
+	/** 是否并行执行分页查询的总记录数统计和当前页查询 */
+	@Value("${db.parallelCount:false}")
+	private Boolean parallelCount = false;
+	/** 并行统计总记录数的超时毫秒数，超时后返回未统计总记录数的分页对象 */
+	@Value("${db.parallelCountTimeout:3000}")
+	private Integer parallelCountTimeout = 3000;
+	@Resource
+	private ReadOnlyTaskExecutor readOnlyTaskExecutor;
+	/** getAll和searchAll方法读取的最大记录行数，为0时不限制 */
+	@Value("${db.budget.allMaxRows:10000}")
+	private Integer allMaxRows = 10000;
+	/** getAll和searchAll方法的最大耗时毫秒数，为0时不限制 */
+	@Value("${db.budget.allMaxMillis:30000}")
+	private Integer allMaxMillis = 30000;
+	/** 查询结果缓存，业务实体类没有标注QueryCacheable注解时为null */
+	private DaoQueryCache queryCache;
 	private Map<String, Analyze> searchFields = new LinkedHashMap<String, Analyze>();
+	/** 以抓取计划名称为键的关联属性路径 */
+	private Map<String, String[]> fetchPlans = new ConcurrentHashMap<String, String[]>();
 
 	/**
 	 * 构造方法。
@@ -64,6 +150,16 @@ public class Dao<T> {
 	public Dao(Class<T> clazz) {
 		this.clazz = clazz;
 		initSearchFields();
+		initFetchPlans();
+	}
+
+	/**
+	 * 获取业务实体类。
+	 * 
+	 * @return 返回业务实体类。
+	 */
+	public Class<T> getEntityClass() {
+		return clazz;
 	}
 
 	/**
@@ -75,6 +171,21 @@ public class Dao<T> {
 		return sessionFactory.getCurrentSession();
 	}
 
+	/**
+	 * 获取查询结果缓存。
+	 * 
+	 * @return 返回查询结果缓存，业务实体类没有标注QueryCacheable注解时返回null。
+	 */
+	public synchronized DaoQueryCache getQueryCache() {
+		QueryCacheable queryCacheable = clazz
+				.getAnnotation(QueryCacheable.class);
+		if (queryCache == null && queryCacheable != null) {
+			queryCache = new DaoQueryCache(clazz, queryCacheable.maxSize());
+			DaoQueryCacheInvalidator.register(sessionFactory, queryCache);
+		}
+		return queryCache;
+	}
+
 	/**
 	 * 获取Hibernate的全文搜索Session。
 	 * 
@@ -114,6 +225,70 @@ public class Dao<T> {
 		return (T) entity;
 	}
 
+	/**
+	 * 根据指定的ID获取业务实体，并按抓取计划在同一条查询语句中加载关联属性。
+	 * 
+	 * @param id
+	 *            实体ID
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回指定ID的业务实体，如果没有找到则返回null。
+	 */
+	public T get(Serializable id, String fetchPlan) {
+		List<T> list = fetchByIds(Collections.singletonList(id),
+				getFetchPaths(fetchPlan));
+		return list.isEmpty() ? null : list.get(0);
+	}
+
+	/**
+	 * 添加抓取计划，同名的抓取计划将被覆盖。
+	 * 
+	 * @param name
+	 *            抓取计划名称
+	 * @param paths
+	 *            关联属性路径，如“actors.role”
+	 */
+	public void addFetchPlan(String name, String... paths) {
+		fetchPlans.put(name, paths);
+	}
+
+	/**
+	 * 按抓取计划加载业务实体的关联属性。<br/>
+	 * 以业务实体的ID作为in条件，用一条join fetch查询语句加载所有关联属性（包含多个bag集合时每个关联属性路径一条查询语句），
+	 * 分页查询先查询当前页的实体再调用该方法，避免join fetch集合时在内存中分页。
+	 * 
+	 * @param entities
+	 *            当前Session中的业务实体列表
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回传入的业务实体列表。
+	 */
+	public List<T> fetch(List<T> entities, String fetchPlan) {
+		String[] paths = getFetchPaths(fetchPlan);
+		List<Serializable> ids = new ArrayList<Serializable>();
+		for (T entity : entities) {
+			ids.add(getSession().getIdentifier(entity));
+		}
+		fetchByIds(ids, paths);
+		return entities;
+	}
+
+	/**
+	 * 按抓取计划加载业务实体的关联属性。
+	 * 
+	 * @param entity
+	 *            当前Session中的业务实体
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回传入的业务实体。
+	 */
+	public T fetch(T entity, String fetchPlan) {
+		if (entity != null) {
+			fetch(Collections.singletonList(entity), fetchPlan);
+		}
+		return entity;
+	}
+
 	/**
 	 * 持久化业务实体。
 	 * 
@@ -156,6 +331,118 @@ public class Dao<T> {
 		return (T) getSession().merge(entity);
 	}
 
+	/**
+	 * 批量持久化业务实体，每持久化指定条数的实体后刷新并清理当前Session，以便使用JDBC批量写入并避免Session无限增长。<br/>
+	 * 由于Session会被清理，持久化后的业务实体都是游离状态的。<br/>
+	 * 清理的是整个当前Session，调用前在当前Session中加载的所有实体都会变为游离状态，其延迟加载的关联无法再初始化，
+	 * 之后的修改也不会再自动写入数据库。
+	 * 
+	 * @param entities
+	 *            待持久化业务实体集合
+	 * @param chunkSize
+	 *            每批处理的实体数，必须大于0
+	 * @return 返回持久化的实体数。
+	 */
+	public Integer persistAll(Collection<T> entities, Integer chunkSize) {
+		Assert.isTrue(chunkSize != null && chunkSize > 0,
+				"每批处理的实体数必须大于0。");
+		long startTime = System.currentTimeMillis();
+		int count = 0;
+		for (T entity : entities) {
+			getSession().persist(entity);
+			flushAndClear(++count, chunkSize);
+		}
+		flushAndClear(0, chunkSize);
+		logThroughput("持久化", count, startTime);
+		return count;
+	}
+
+	/**
+	 * 以JDBC批量写入的记录数为每批处理的实体数批量持久化业务实体。
+	 * 
+	 * @param entities
+	 *            待持久化业务实体集合
+	 * @return 返回持久化的实体数。
+	 */
+	public Integer persistAll(Collection<T> entities) {
+		return persistAll(entities, getJdbcBatchSize());
+	}
+
+	/**
+	 * 批量保存业务实体，每保存指定条数的实体后刷新并清理当前Session，以便使用JDBC批量写入并避免Session无限增长。<br/>
+	 * 由于Session会被清理，保存后的业务实体都是游离状态的。<br/>
+	 * 清理的是整个当前Session，调用前在当前Session中加载的所有实体都会变为游离状态，其延迟加载的关联无法再初始化，
+	 * 之后的修改也不会再自动写入数据库。
+	 * 
+	 * @param entities
+	 *            待保存业务实体集合
+	 * @param chunkSize
+	 *            每批处理的实体数，必须大于0
+	 * @return 返回保存的实体数。
+	 */
+	public Integer saveAll(Collection<T> entities, Integer chunkSize) {
+		Assert.isTrue(chunkSize != null && chunkSize > 0,
+				"每批处理的实体数必须大于0。");
+		long startTime = System.currentTimeMillis();
+		int count = 0;
+		for (T entity : entities) {
+			getSession().save(entity);
+			flushAndClear(++count, chunkSize);
+		}
+		flushAndClear(0, chunkSize);
+		logThroughput("保存", count, startTime);
+		return count;
+	}
+
+	/**
+	 * 以JDBC批量写入的记录数为每批处理的实体数批量保存业务实体。
+	 * 
+	 * @param entities
+	 *            待保存业务实体集合
+	 * @return 返回保存的实体数。
+	 */
+	public Integer saveAll(Collection<T> entities) {
+		return saveAll(entities, getJdbcBatchSize());
+	}
+
+	/**
+	 * 批量合并业务实体，每合并指定条数的实体后刷新并清理当前Session，以便使用JDBC批量写入并避免Session无限增长。<br/>
+	 * 由于Session会被清理，返回的业务实体都是游离状态的。<br/>
+	 * 清理的是整个当前Session，调用前在当前Session中加载的所有实体都会变为游离状态，其延迟加载的关联无法再初始化，
+	 * 之后的修改也不会再自动写入数据库。
+	 * 
+	 * @param entities
+	 *            待合并业务实体集合
+	 * @param chunkSize
+	 *            每批处理的实体数，必须大于0
+	 * @return 返回合并后的业务实体列表。
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> mergeAll(Collection<T> entities, Integer chunkSize) {
+		Assert.isTrue(chunkSize != null && chunkSize > 0,
+				"每批处理的实体数必须大于0。");
+		long startTime = System.currentTimeMillis();
+		List<T> mergedEntities = new ArrayList<T>();
+		for (T entity : entities) {
+			mergedEntities.add((T) getSession().merge(entity));
+			flushAndClear(mergedEntities.size(), chunkSize);
+		}
+		flushAndClear(0, chunkSize);
+		logThroughput("合并", mergedEntities.size(), startTime);
+		return mergedEntities;
+	}
+
+	/**
+	 * 以JDBC批量写入的记录数为每批处理的实体数批量合并业务实体。
+	 * 
+	 * @param entities
+	 *            待合并业务实体集合
+	 * @return 返回合并后的业务实体列表。
+	 */
+	public List<T> mergeAll(Collection<T> entities) {
+		return mergeAll(entities, getJdbcBatchSize());
+	}
+
 	/**
 	 * 保存业务实体。（复用已有的ID键值时使用）
 	 * 
@@ -187,41 +474,140 @@ public class Dao<T> {
 	}
 
 	/**
-	 * 根据ID批量删除业务实体。
+	 * 根据ID批量删除业务实体。<br/>
+	 * 按removeAll方法的方式以delete语句批量删除，不触发Hibernate的删除事件：二级缓存和查询结果缓存由removeAll直接清除，
+	 * 发件箱删除事件由removeAll补充写入；实体声明了ContainedIn注解时逐个删除，以便重建所属实体的全文索引。
 	 * 
 	 * @param ids
 	 *            待删除业务实体ID数组
+	 * @see #removeAll(Collection)
 	 */
 	public void remove(Serializable[] ids) {
-		for (Serializable id : ids) {
-			remove(id);
-		}
+		removeAll(Arrays.asList(ids));
 	}
 
 	/**
-	 * 删除多个业务实体。
+	 * 删除多个业务实体。<br/>
+	 * 按removeAll方法的方式以delete语句批量删除，不触发Hibernate的删除事件：二级缓存和查询结果缓存由removeAll直接清除，
+	 * 发件箱删除事件由removeAll补充写入；实体声明了ContainedIn注解时逐个删除，以便重建所属实体的全文索引。
 	 * 
 	 * @param entitys
 	 *            待删除的业务实体列表
+	 * @see #removeAll(Collection)
 	 */
 	public void remove(List<T> entitys) {
+		List<Serializable> ids = new ArrayList<Serializable>();
 		for (T entity : entitys) {
-			remove(entity);
+			ids.add(getId(entity));
 		}
+		removeAll(ids);
+	}
+
+	/**
+	 * 根据ID批量删除业务实体。<br/>
+	 * 以分批的“delete ... where id in (...)”语句删除，不逐个加载实体。
+	 * 声明了级联删除或orphanRemoval的一对多关联对象会先以同样的方式递归删除。
+	 * 被删除实体会从当前Session和二级缓存中清除，对应的全文索引也会被清除，标注了CaptureChanges注解的实体同时写入发件箱删除事件。<br/>
+	 * 以delete语句删除时不触发Hibernate的删除事件，如果实体声明了级联删除的多对一/一对一关联、使用中间表的集合关联或者ContainedIn注解，
+	 * 则分批加载实体后逐个删除。
+	 * 
+	 * @param ids
+	 *            待删除业务实体ID集合
+	 * @return 返回删除的记录数。
+	 */
+	public Integer removeAll(Collection<? extends Serializable> ids) {
+		return removeAll(getPersister(), new LinkedHashSet<Serializable>(ids));
 	}
 
 	/**
-	 * 根据属性批量删除业务实体
+	 * 根据属性批量删除业务实体。<br/>
+	 * 先查询符合条件的实体ID，再按removeAll方法的方式删除。
 	 * 
 	 * @param name
 	 *            属性名
 	 * @param value
 	 *            属性值
+	 * @see #removeAll(Collection)
 	 */
+	@SuppressWarnings("unchecked")
 	public void removeBy(String name, Object value) {
-		Query query = createQuery("delete from " + clazz.getName() + " where "
-				+ name + "=?", value);
-		query.executeUpdate();
+		removeAll(createCriteria(Restrictions.eq(name, value)).setProjection(
+				Projections.id()).list());
+	}
+
+	/**
+	 * 批量更新符合条件的业务实体。<br/>
+	 * 先查询符合条件的实体ID，再以分批的“update ... where id in (...)”语句更新，不逐个加载实体，版本化实体的版本号同时递增。
+	 * 被更新实体会从当前Session、二级缓存和查询结果缓存中清除，更新了多对一关联时同时清除以该实体为元素的集合缓存；
+	 * 更新的属性包含全文索引字段时，被更新实体的全文索引随后重建；标注了CaptureChanges注解的实体同时写入发件箱修改事件。<br/>
+	 * 全文索引在重建时即写入索引，不等待事务提交，事务回滚后索引中仍是更新后的值，需要重建索引来恢复一致。<br/>
+	 * 以update语句更新时不触发Hibernate的修改事件，如果实体声明了ContainedIn注解，需要修改事件来重建所属实体的全文索引，
+	 * 则分批加载实体后逐个修改属性值。
+	 * 
+	 * @param set
+	 *            以属性名为键，新属性值为值的映射
+	 * @param where
+	 *            查询条件，为空时更新所有实体
+	 * @return 返回更新的记录数。
+	 */
+	@SuppressWarnings("unchecked")
+	public Integer updateBy(Map<String, Object> set, Criterion... where) {
+		Assert.notEmpty(set, "必须指定更新的属性。");
+		EntityPersister persister = getPersister();
+		// 先刷新当前Session，避免清除实体时丢弃调用方尚未写入数据库的修改
+		getSession().flush();
+		List<Serializable> ids = createCriteria(where).setProjection(
+				Projections.id()).list();
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		if (hasContainedIn(persister.getMappedClass())) {
+			int count = 0;
+			for (List<Serializable> chunk : split(ids)) {
+				for (T entity : getAll(chunk)) {
+					for (Entry<String, Object> entry : set.entrySet()) {
+						persister.getClassMetadata().setPropertyValue(entity,
+								entry.getKey(), entry.getValue());
+					}
+					count++;
+				}
+			}
+			getSession().flush();
+			return count;
+		}
+		StringBuilder hql = new StringBuilder("update ");
+		if (persister.isVersioned()) {
+			hql.append("versioned ");
+		}
+		hql.append(persister.getEntityName()).append(" set ");
+		List<String> names = new ArrayList<String>(set.keySet());
+		for (int i = 0; i < names.size(); i++) {
+			hql.append(i > 0 ? ", " : "").append(names.get(i)).append(" = :p")
+					.append(i);
+		}
+		hql.append(" where ").append(getIdName()).append(" in (:ids)");
+		evict(persister, ids);
+		int count = 0;
+		for (List<Serializable> chunk : split(ids)) {
+			Query query = getSession().createQuery(hql.toString());
+			for (int i = 0; i < names.size(); i++) {
+				query.setParameter("p" + i, set.get(names.get(i)));
+			}
+			count += query.setParameterList("ids", chunk).executeUpdate();
+		}
+		// 更新了多对一关联时，以该实体为元素的集合缓存中的成员关系可能已经改变
+		for (String name : names) {
+			if (persister.getPropertyType(name).isEntityType()) {
+				evictReferencingCollections(persister.getEntityName());
+				break;
+			}
+		}
+		if (isIndexedProperty(names)) {
+			reindex(ids);
+		}
+		OutboxEventListener.capture(getSession(), persister, ids,
+				OutboxEventEntity.UPDATE, StringUtils.join(names, ","));
+		return count;
 	}
 
 	/**
@@ -303,14 +689,22 @@ public class Dao<T> {
 	}
 
 	/**
-	 * 获取指定类型的所有业务实体。
+	 * 获取指定类型的所有业务实体。<br/>
+	 * 启用查询预算（db.budget.enabled）时，读取的记录行数和耗时受查询预算（db.budget.allMaxRows、db.budget.allMaxMillis）限制。
 	 * 
 	 * @return 返回指定类型的所有业务实体。
 	 */
 	@SuppressWarnings("unchecked")
 	public List<T> getAll() {
-		Criteria criteria = createCriteria();
-		return criteria.list();
+		beginAllBudget("getAll");
+		try {
+			Criteria criteria = createCriteria();
+			return list(criteria, "all");
+		} catch (RuntimeException e) {
+			throw QueryBudget.unwrap(e);
+		} finally {
+			QueryBudget.end();
+		}
 	}
 
 	/**
@@ -324,8 +718,72 @@ public class Dao<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	public List<T> getAll(String orderBy, Boolean isAsc) {
-		Criteria criteria = createCriteria(orderBy, isAsc);
-		return criteria.list();
+		beginAllBudget("getAll");
+		try {
+			Criteria criteria = createCriteria(orderBy, isAsc);
+			return list(criteria, "all|" + orderBy + "|" + isAsc);
+		} catch (RuntimeException e) {
+			throw QueryBudget.unwrap(e);
+		} finally {
+			QueryBudget.end();
+		}
+	}
+
+	/**
+	 * 根据ID集合批量获取业务实体。<br/>
+	 * 已在当前会话或二级缓存中的实体直接从缓存获取，其余的实体按数据库方言允许的in表达式长度分批查询。<br/>
+	 * 与get方法一致，查询时不触发自动flush。
+	 * 
+	 * @param ids
+	 *            ID集合
+	 * @return 返回按ID集合顺序排列的业务实体列表，不存在的实体将被忽略。
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getAll(Collection<? extends Serializable> ids) {
+		EntityPersister persister = getPersister();
+		SessionImplementor session = (SessionImplementor) getSession();
+		Boolean cacheEnabled = session.getCacheMode().isGetEnabled();
+		Map<Serializable, T> entities = new HashMap<Serializable, T>();
+		List<Serializable> missIds = new ArrayList<Serializable>();
+		for (Serializable id : new LinkedHashSet<Serializable>(ids)) {
+			if (id == null) {
+				continue;
+			}
+			if (session.getPersistenceContext().containsEntity(
+					session.generateEntityKey(id, persister))
+					|| cacheEnabled
+					&& sessionFactory.getCache().containsEntity(clazz, id)) {
+				T entity = get(id);
+				if (entity != null) {
+					entities.put(id, entity);
+				}
+			} else {
+				missIds.add(id);
+			}
+		}
+		String hql = "from " + persister.getEntityName() + " where "
+				+ getIdName() + " in (:ids)";
+		for (List<Serializable> chunk : split(missIds)) {
+			List<Object> list = getSession().createQuery(hql)
+					.setParameterList("ids", chunk)
+					.setFlushMode(FlushMode.MANUAL).list();
+			for (Object entity : list) {
+				Serializable id = getSession().getIdentifier(entity);
+				if (entity instanceof HibernateProxy) {
+					entity = ((HibernateProxy) entity)
+							.getHibernateLazyInitializer().getImplementation();
+				}
+				entities.put(id, (T) entity);
+			}
+		}
+		List<T> result = new ArrayList<T>();
+		for (Serializable id : ids) {
+			T entity = entities.get(id);
+			if (entity != null) {
+				result.add(entity);
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -345,7 +803,7 @@ public class Dao<T> {
 		} else {
 			criteria.add(Restrictions.eq(name, value));
 		}
-		return criteria.list();
+		return list(criteria, "by|" + name + "|" + toCacheKey(value));
 	}
 
 	/**
@@ -370,7 +828,120 @@ public class Dao<T> {
 		} else {
 			criteria.add(Restrictions.eq(name, value));
 		}
-		return criteria.list();
+		return list(criteria, "by|" + name + "|" + toCacheKey(value) + "|"
+				+ orderBy + "|" + isAsc);
+	}
+
+	/**
+	 * 根据属性的值查找业务实体，并按抓取计划加载关联属性。
+	 * 
+	 * @param name
+	 *            属性名
+	 * @param value
+	 *            属性值
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回属性值相符的业务实体集合，如果没有找到返回一个空的集合。
+	 */
+	public List<T> findBy(String name, Object value, String fetchPlan) {
+		return fetch(findBy(name, value), fetchPlan);
+	}
+
+	/**
+	 * 以游标方式逐条遍历查询结果，每处理完指定条数的记录后刷新并清理当前Session，内存占用不随记录数增长。<br/>
+	 * 清理Session会使之前加载的实体变为游离状态，调用方不应在遍历过程中持有这些实体。
+	 * 
+	 * @param criteria
+	 *            查询条件
+	 * @param batchSize
+	 *            每批处理的记录数，必须大于0
+	 * @param callback
+	 *            回调接口
+	 * @return 返回处理的记录数。
+	 */
+	public Integer forEach(Criteria criteria, Integer batchSize,
+			ScrollCallback<T> callback) {
+		Assert.isTrue(batchSize != null && batchSize > 0,
+				"每批处理的记录数必须大于0。");
+		criteria.setCacheMode(CacheMode.IGNORE);
+		return scroll(criteria.scroll(ScrollMode.FORWARD_ONLY), batchSize,
+				callback);
+	}
+
+	/**
+	 * 以游标方式逐条遍历HQL查询结果，每处理完指定条数的记录后刷新并清理当前Session，内存占用不随记录数增长。<br/>
+	 * 清理Session会使之前加载的实体变为游离状态，调用方不应在遍历过程中持有这些实体。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param batchSize
+	 *            每批处理的记录数，必须大于0
+	 * @param callback
+	 *            回调接口
+	 * @param values
+	 *            参数值
+	 * @return 返回处理的记录数。
+	 */
+	public Integer forEach(String hql, Integer batchSize,
+			ScrollCallback<T> callback, Object... values) {
+		Assert.isTrue(batchSize != null && batchSize > 0,
+				"每批处理的记录数必须大于0。");
+		Query query = createQuery(hql, values);
+		query.setCacheMode(CacheMode.IGNORE);
+		return scroll(query.scroll(ScrollMode.FORWARD_ONLY), batchSize,
+				callback);
+	}
+
+	/**
+	 * 使用无状态Session以游标方式逐条遍历查询结果，适用于只读的大批量导出。<br/>
+	 * 无状态Session使用独立的数据库连接，不经过一级和二级缓存，加载的实体不支持延迟加载关联对象，对实体的修改也不会被保存。
+	 * 
+	 * @param callback
+	 *            回调接口
+	 * @param criterions
+	 *            查询条件
+	 * @return 返回处理的记录数。
+	 */
+	public Integer forEachStateless(ScrollCallback<T> callback,
+			Criterion... criterions) {
+		StatelessSession session = sessionFactory.openStatelessSession();
+		try {
+			Criteria criteria = session.createCriteria(clazz);
+			for (Criterion c : criterions) {
+				criteria.add(c);
+			}
+			return scroll(criteria.scroll(ScrollMode.FORWARD_ONLY), null,
+					callback);
+		} finally {
+			session.close();
+		}
+	}
+
+	/**
+	 * 使用无状态Session以游标方式逐条遍历HQL查询结果，适用于只读的大批量导出。<br/>
+	 * 无状态Session使用独立的数据库连接，不经过一级和二级缓存，加载的实体不支持延迟加载关联对象，对实体的修改也不会被保存。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param callback
+	 *            回调接口
+	 * @param values
+	 *            参数值
+	 * @return 返回处理的记录数。
+	 */
+	public Integer forEachStateless(String hql, ScrollCallback<T> callback,
+			Object... values) {
+		StatelessSession session = sessionFactory.openStatelessSession();
+		try {
+			Query query = session.createQuery(hql);
+			for (int i = 0; i < values.length; i++) {
+				query.setParameter(i, values[i]);
+			}
+			return scroll(query.scroll(ScrollMode.FORWARD_ONLY), null,
+					callback);
+		} finally {
+			session.close();
+		}
 	}
 
 	/**
@@ -403,6 +974,97 @@ public class Dao<T> {
 		return Integer.parseInt(criteria.uniqueResult().toString()) == 0;
 	}
 
+	/**
+	 * 批量判断业务实体的属性是否重复，用于批量导入等场景，代替逐个调用isUnique。<br/>
+	 * 待判断的业务实体之间属性重复的，以及与数据库中其它记录属性重复的，都作为重复的业务实体返回。
+	 * 与数据库的比较以分批的in条件（多个属性时为or连接的多个and条件）查询，查询次数与实体数除以每批条数成正比。
+	 * 与isUnique一致，属性值为null时不作为重复。
+	 * 
+	 * @param entities
+	 *            待判断的业务实体集合
+	 * @param propNames
+	 *            属性名，可以多个属性名用","分割
+	 * @return 返回按原顺序排列的属性重复的业务实体列表，没有重复时返回空列表。
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> findDuplicates(Collection<T> entities, String propNames) {
+		String[] names = propNames.split(Chars.COMMA);
+		Set<T> checked = Collections
+				.newSetFromMap(new IdentityHashMap<T, Boolean>());
+		Map<List<Object>, List<T>> groups = new LinkedHashMap<List<Object>, List<T>>();
+		for (T entity : entities) {
+			if (!checked.add(entity)) {
+				continue;
+			}
+			List<Object> values = new ArrayList<Object>();
+			for (String name : names) {
+				values.add(BeanUtils.getField(entity, name.trim()));
+			}
+			if (values.contains(null)) {
+				continue;
+			}
+			if (!groups.containsKey(values)) {
+				groups.put(values, new ArrayList<T>());
+			}
+			groups.get(values).add(entity);
+		}
+		Set<T> duplicates = Collections
+				.newSetFromMap(new IdentityHashMap<T, Boolean>());
+		for (List<T> group : groups.values()) {
+			if (group.size() > 1) {
+				duplicates.addAll(group);
+			}
+		}
+		ProjectionList projection = Projections.projectionList().add(
+				Projections.id());
+		for (String name : names) {
+			projection.add(Projections.property(name.trim()));
+		}
+		for (List<List<Object>> chunk : split(groups.keySet(),
+				Math.max(1, getInChunkSize() / names.length))) {
+			Criteria criteria = createCriteria().setProjection(projection);
+			if (names.length == 1) {
+				List<Object> values = new ArrayList<Object>();
+				for (List<Object> key : chunk) {
+					values.add(key.get(0));
+				}
+				criteria.add(Restrictions.in(names[0].trim(), values));
+			} else {
+				Disjunction disjunction = Restrictions.disjunction();
+				for (List<Object> key : chunk) {
+					Conjunction conjunction = Restrictions.conjunction();
+					for (int i = 0; i < names.length; i++) {
+						conjunction.add(Restrictions.eq(names[i].trim(),
+								key.get(i)));
+					}
+					disjunction.add(conjunction);
+				}
+				criteria.add(disjunction);
+			}
+			for (Object[] row : (List<Object[]>) criteria.list()) {
+				// 数据库比较规则（如不区分大小写）与Java不一致时无法对应到待判断的实体，忽略该记录
+				List<T> group = groups.get(Arrays.asList(row).subList(1,
+						row.length));
+				if (group == null) {
+					continue;
+				}
+				for (T entity : group) {
+					if (!row[0].equals(getId(entity))) {
+						duplicates.add(entity);
+					}
+				}
+			}
+		}
+		List<T> result = new ArrayList<T>();
+		checked.clear();
+		for (T entity : entities) {
+			if (duplicates.contains(entity) && checked.add(entity)) {
+				result.add(entity);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * 查找唯一业务实体。
 	 * 
@@ -426,7 +1088,15 @@ public class Dao<T> {
 	 */
 	public T findUnique(String name, Object value) {
 		Criteria criteria = createCriteria(Restrictions.eq(name, value));
-		return findUnique(criteria);
+		if (!isQueryCacheUsable()) {
+			return findUnique(criteria);
+		}
+		List<T> list = list(criteria, "unique|" + name + "|"
+				+ toCacheKey(value));
+		if (list.size() > 1) {
+			throw new NonUniqueResultException(list.size());
+		}
+		return list.isEmpty() ? null : list.get(0);
 	}
 
 	/**
@@ -475,7 +1145,39 @@ public class Dao<T> {
 	 */
 	public Page<T> findPage(String hql, Integer pageNo, Integer pageSize,
 			Object... values) {
-		return findPage(hql, pageNo, pageSize, count(hql, values), values);
+		String key = getCountKey(hql, values);
+		Integer totalCount = countCache.get(key);
+		if (totalCount == null && parallelCount) {
+			return findPageInParallel(hql, key, pageNo, pageSize, values);
+		}
+		if (totalCount == null) {
+			totalCount = count(hql, values);
+			cacheCount(key, totalCount);
+		}
+		return findPage(hql, pageNo, pageSize, totalCount, values);
+	}
+
+	/**
+	 * 根据HQL查询语句进行不统计总记录数的分页查询。<br/>
+	 * 多获取一条记录来判断是否存在下一页，分页对象的总记录数只是根据当前页推算出的最小值。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回查询得到的分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public Page<T> findPageWithoutCount(String hql, Integer pageNo,
+			Integer pageSize, Object... values) {
+		int offset = (Math.max(pageNo, 1) - 1) * pageSize;
+		List<T> list = createQuery(hql, values).setFirstResult(offset)
+				.setMaxResults(pageSize + 1).list();
+		return createUncountedPage(list, pageNo, pageSize);
 	}
 
 	/**
@@ -518,37 +1220,319 @@ public class Dao<T> {
 	 * @return 返回查询得到的分页对象。
 	 */
 	public Page<T> findPage(Criteria criteria, Integer pageNo, Integer pageSize) {
-		return findPage(criteria, pageNo, pageSize, count(criteria));
+		String key = getCountKey(criteria);
+		Integer totalCount = countCache.get(key);
+		if (totalCount == null) {
+			totalCount = count(criteria);
+			cacheCount(key, totalCount);
+		}
+		return findPage(criteria, pageNo, pageSize, totalCount);
 	}
 
 	/**
-	 * 创建全文搜索查询条件。
+	 * 根据查询条件进行分页查询，并按抓取计划加载当前页业务实体的关联属性。<br/>
+	 * 先分页查询当前页的业务实体，再以当前页的ID加载关联属性，分页在数据库中完成。
 	 * 
-	 * @return 返回全文搜索查询条件。
+	 * @param criteria
+	 *            查询条件
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回查询得到的分页对象。
 	 */
-	public FullTextCriteria createFullTextCriteria() {
-		return new FullTextCriteria(getFullTextSession(), clazz, searchFields);
+	public Page<T> findPage(Criteria criteria, Integer pageNo,
+			Integer pageSize, String fetchPlan) {
+		Page<T> page = findPage(criteria, pageNo, pageSize);
+		fetch(page.getContents(), fetchPlan);
+		return page;
 	}
 
 	/**
-	 * 根据全文搜索查询条件进行全文搜索。
+	 * 根据HQL查询语句进行DTO投影分页查询。<br/>
+	 * 只查询DTO属性对应的字段，关联实体的属性路径（如“creator.name”）转换为左连接，HQL查询语句必须为查询实体指定别名。<br/>
+	 * HQL查询语句中的fetch连接按普通连接处理，使用了distinct或fetch连接时投影结果按查询实体去重。
 	 * 
-	 * @param criteria
-	 *            全文搜索查询条件
-	 * @return 返回符合查询条件的业务实体列表。
+	 * @param <D>
+	 *            DTO类型
+	 * @param hql
+	 *            HQL查询语句
+	 * @param dtoClass
+	 *            DTO类
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回查询得到的DTO分页对象。
 	 */
 	@SuppressWarnings("unchecked")
-	public List<T> searchBy(FullTextCriteria criteria) {
-		return criteria.generateQuery().list();
-	}
+	public <D> Page<D> findPage(String hql, Class<D> dtoClass, Integer pageNo,
+			Integer pageSize, Object... values) {
+		String rootAlias = HqlUtils.getRootAlias(hql);
+		if (rootAlias == null) {
+			throw new UncheckedException("DTO投影查询的HQL语句必须为查询实体指定别名。");
+		}
+		Integer totalCount = count(hql, values);
+		if (totalCount < 1) {
+			return new Page<D>(pageSize);
+		}
 
-	/**
-	 * 全文搜索指定类型的所有业务实体。
-	 * 
-	 * @return 返回指定类型的所有业务实体。
-	 */
-	public List<T> searchAll() {
-		return searchBy(createFullTextCriteria());
+		Map<String, String> joins = new LinkedHashMap<String, String>();
+		List<String> selects = new ArrayList<String>();
+		for (Entry<String, String> projectionPath : getProjectionPaths(
+				dtoClass).entrySet()) {
+			selects.add(resolveProjectionPath(projectionPath.getValue(),
+					rootAlias, joins) + " as " + projectionPath.getKey());
+		}
+		// fetch关键字在投影查询中无效，去除后保留连接；原查询使用了distinct或fetch连接时按查询实体去重，
+		// 与统计不重复的查询实体ID的总记录数保持一致，去重时附加查询实体ID，避免投影值相同的不同实体被合并
+		String fetchlessHql = HqlUtils.removeFetch(hql);
+		Boolean distinct = HqlUtils.isDistinct(hql)
+				|| !fetchlessHql.equals(hql.trim());
+		ResultTransformer transformer = Transformers.aliasToBean(dtoClass);
+		if (distinct) {
+			selects.add(rootAlias + "." + getIdName());
+			transformer = new TrailingColumnRemover(transformer);
+		}
+		String projectionHql = HqlUtils.replaceSelect(fetchlessHql,
+				(distinct ? "select distinct " : "select ")
+						+ StringUtils.join(selects, ", "));
+		for (Entry<String, String> join : joins.entrySet()) {
+			projectionHql = HqlUtils.addJoin(projectionHql, "left join "
+					+ join.getValue() + " " + join.getKey());
+		}
+
+		Page<D> page = new Page<D>(totalCount, pageNo, pageSize);
+		List<D> list = createQuery(projectionHql, values)
+				.setResultTransformer(transformer)
+				.setFirstResult((page.getNumber() - 1) * pageSize)
+				.setMaxResults(pageSize).list();
+		page.setContents(list);
+		return page;
+	}
+
+	/**
+	 * 根据查询条件进行DTO投影分页查询。<br/>
+	 * 只查询DTO属性对应的字段，关联实体的属性路径（如“creator.name”）转换为左连接，已在查询条件中创建别名的关联直接使用该别名。
+	 * 
+	 * @param <D>
+	 *            DTO类型
+	 * @param criteria
+	 *            查询条件
+	 * @param dtoClass
+	 *            DTO类
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的DTO分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public <D> Page<D> findPage(Criteria criteria, Class<D> dtoClass,
+			Integer pageNo, Integer pageSize) {
+		Integer totalCount = count(criteria);
+		if (totalCount < 1) {
+			return new Page<D>(pageSize);
+		}
+
+		Map<String, String> aliases = new HashMap<String, String>();
+		Iterator<Subcriteria> subcriterias = ((CriteriaImpl) criteria)
+				.iterateSubcriteria();
+		while (subcriterias.hasNext()) {
+			Subcriteria subcriteria = subcriterias.next();
+			aliases.put(subcriteria.getPath(), subcriteria.getAlias());
+		}
+		Map<String, String> renames = new HashMap<String, String>();
+		ProjectionList projections = Projections.projectionList();
+		for (Entry<String, String> projectionPath : getProjectionPaths(
+				dtoClass).entrySet()) {
+			Map<String, String> joins = new LinkedHashMap<String, String>();
+			String property = resolveProjectionPath(projectionPath.getValue(),
+					null, joins);
+			for (Entry<String, String> join : joins.entrySet()) {
+				String path = renameAlias(join.getValue(), renames);
+				if (!aliases.containsKey(path)) {
+					criteria.createAlias(path, join.getKey(),
+							JoinType.LEFT_OUTER_JOIN);
+					aliases.put(path, join.getKey());
+				}
+				renames.put(join.getKey(), aliases.get(path));
+			}
+			projections.add(
+					Projections.property(renameAlias(property, renames)),
+					projectionPath.getKey());
+		}
+		criteria.setProjection(projections).setResultTransformer(
+				Transformers.aliasToBean(dtoClass));
+
+		Page<D> page = new Page<D>(totalCount, pageNo, pageSize);
+		List<D> list = criteria
+				.setFirstResult((page.getNumber() - 1) * pageSize)
+				.setMaxResults(pageSize).list();
+		page.setContents(list);
+		return page;
+	}
+
+	/**
+	 * 根据查询条件进行不统计总记录数的分页查询。<br/>
+	 * 多获取一条记录来判断是否存在下一页，分页对象的总记录数只是根据当前页推算出的最小值。
+	 * 
+	 * @param criteria
+	 *            查询条件
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public Page<T> findPageWithoutCount(Criteria criteria, Integer pageNo,
+			Integer pageSize) {
+		int offset = (Math.max(pageNo, 1) - 1) * pageSize;
+		List<T> list = criteria.setFirstResult(offset)
+				.setMaxResults(pageSize + 1).list();
+		return createUncountedPage(list, pageNo, pageSize);
+	}
+
+	/**
+	 * 根据查询条件进行游标分页查询。<br/>
+	 * 以游标指向记录的排序值和ID作为查询起点，不使用偏移量，翻页耗时不随页码深度增加。<br/>
+	 * 查询条件中不能再设置排序，排序属性必须是实体类自身的非空属性。
+	 * 
+	 * @param criteria
+	 *            查询条件
+	 * @param sortKey
+	 *            排序属性
+	 * @param isAsc
+	 *            是否升序
+	 * @param cursor
+	 *            游标，为空时获取第一页
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的游标分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public SeekPage<T> seekPage(Criteria criteria, String sortKey,
+			Boolean isAsc, String cursor, Integer pageSize) {
+		SeekPage<T> page = new SeekPage<T>(pageSize, cursor);
+		Serializable cursorId = toId(page.getCursorId());
+		Object cursorValue = getPropertyValue(cursorId, sortKey);
+		// 游标指向的记录已不存在时从第一页开始
+		if (cursorValue == null) {
+			page = new SeekPage<T>(pageSize, null);
+		}
+		boolean asc = page.isBackward() ? !isAsc : isAsc;
+		String idName = getIdName();
+		if (cursorValue != null) {
+			Criterion sortCriterion = asc ? Restrictions.gt(sortKey,
+					cursorValue) : Restrictions.lt(sortKey, cursorValue);
+			Criterion idCriterion = asc ? Restrictions.gt(idName, cursorId)
+					: Restrictions.lt(idName, cursorId);
+			criteria.add(Restrictions.or(sortCriterion, Restrictions.and(
+					Restrictions.eq(sortKey, cursorValue), idCriterion)));
+		}
+		criteria.addOrder(asc ? Order.asc(sortKey) : Order.desc(sortKey));
+		criteria.addOrder(asc ? Order.asc(idName) : Order.desc(idName));
+		List<T> list = criteria.setMaxResults(pageSize + 1).list();
+		fillSeekPage(page, list);
+		return page;
+	}
+
+	/**
+	 * 根据HQL查询语句进行游标分页查询。<br/>
+	 * HQL查询语句中的order by子句将被忽略，如果HQL查询语句中为实体类声明了别名，排序属性需要带上别名，例如：u.createDate。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param sortKey
+	 *            排序属性
+	 * @param isAsc
+	 *            是否升序
+	 * @param cursor
+	 *            游标，为空时获取第一页
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回查询得到的游标分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public SeekPage<T> seekPage(String hql, String sortKey, Boolean isAsc,
+			String cursor, Integer pageSize, Object... values) {
+		String alias = "";
+		String sortName = sortKey;
+		if (sortKey.contains(".")) {
+			alias = StringUtils.substringBeforeLast(sortKey, ".") + ".";
+			sortName = StringUtils.substringAfterLast(sortKey, ".");
+		}
+		SeekPage<T> page = new SeekPage<T>(pageSize, cursor);
+		Serializable cursorId = toId(page.getCursorId());
+		Object cursorValue = getPropertyValue(cursorId, sortName);
+		if (cursorValue == null) {
+			page = new SeekPage<T>(pageSize, null);
+		}
+		boolean asc = page.isBackward() ? !isAsc : isAsc;
+		String idKey = alias + getIdName();
+		String seekHql = HqlUtils.removeOrderBy(hql);
+		if (cursorValue != null) {
+			String op = asc ? " > " : " < ";
+			seekHql = HqlUtils.addCondition(seekHql, "(" + sortKey + op
+					+ ":seekValue or (" + sortKey + " = :seekValue and "
+					+ idKey + op + ":seekId))");
+		}
+		String direction = asc ? " asc" : " desc";
+		seekHql += " order by " + sortKey + direction + ", " + idKey
+				+ direction;
+		Query query = createQuery(seekHql, values);
+		if (cursorValue != null) {
+			query.setParameter("seekValue", cursorValue);
+			query.setParameter("seekId", cursorId);
+		}
+		List<T> list = query.setMaxResults(pageSize + 1).list();
+		fillSeekPage(page, list);
+		return page;
+	}
+
+	/**
+	 * 创建全文搜索查询条件。
+	 * 
+	 * @return 返回全文搜索查询条件。
+	 */
+	public FullTextCriteria createFullTextCriteria() {
+		return new FullTextCriteria(getFullTextSession(), clazz, searchFields);
+	}
+
+	/**
+	 * 根据全文搜索查询条件进行全文搜索。
+	 * 
+	 * @param criteria
+	 *            全文搜索查询条件
+	 * @return 返回符合查询条件的业务实体列表。
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> searchBy(FullTextCriteria criteria) {
+		return criteria.generateQuery().list();
+	}
+
+	/**
+	 * 全文搜索指定类型的所有业务实体。<br/>
+	 * 启用查询预算（db.budget.enabled）时，读取的记录行数和耗时受查询预算（db.budget.allMaxRows、db.budget.allMaxMillis）限制。
+	 * 
+	 * @return 返回指定类型的所有业务实体。
+	 */
+	public List<T> searchAll() {
+		beginAllBudget("searchAll");
+		try {
+			return searchBy(createFullTextCriteria());
+		} catch (RuntimeException e) {
+			throw QueryBudget.unwrap(e);
+		} finally {
+			QueryBudget.end();
+		}
 	}
 
 	/**
@@ -569,7 +1553,14 @@ public class Dao<T> {
 		} else {
 			criteria.addSortDesc(orderBy, type);
 		}
-		return searchBy(criteria);
+		beginAllBudget("searchAll");
+		try {
+			return searchBy(criteria);
+		} catch (RuntimeException e) {
+			throw QueryBudget.unwrap(e);
+		} finally {
+			QueryBudget.end();
+		}
 	}
 
 	/**
@@ -610,9 +1601,106 @@ public class Dao<T> {
 	 *            每页的记录数
 	 * @return 返回搜索得到的分页对象。
 	 */
-	@SuppressWarnings("unchecked")
 	public Page<T> searchPage(FullTextCriteria criteria, Integer pageNo,
 			Integer pageSize) {
+		if (parallelCount) {
+			return searchPageInParallel(criteria, pageNo, pageSize);
+		}
+		return searchPageInSequence(criteria, pageNo, pageSize);
+	}
+
+	/**
+	 * 根据全文搜索查询条件进行分页全文搜索，并按抓取计划加载当前页业务实体的关联属性。
+	 * 
+	 * @param criteria
+	 *            全文搜索查询条件
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回搜索得到的分页对象。
+	 */
+	public Page<T> searchPage(FullTextCriteria criteria, Integer pageNo,
+			Integer pageSize, String fetchPlan) {
+		Page<T> page = searchPage(criteria, pageNo, pageSize);
+		fetch(page.getContents(), fetchPlan);
+		return page;
+	}
+
+	/**
+	 * 根据全文搜索查询条件进行游标分页全文搜索。<br/>
+	 * 游标中记录了上一页最后一条（或下一页第一条）记录的排序值，使用Lucene的searchAfter从该位置开始搜索，不使用偏移量，翻页耗时和内存占用不随页码深度增加。<br/>
+	 * 游标分页不统计总记录数，排序值相同的记录按ID排序。游标对应的记录更新或删除后翻页仍从原排序值位置继续，不会重复或遗漏其它记录。
+	 * 
+	 * @param criteria
+	 *            全文搜索查询条件
+	 * @param cursor
+	 *            游标，为空时获取第一页
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回搜索得到的游标分页对象。
+	 */
+	public SeekPage<T> searchSeekPage(FullTextCriteria criteria,
+			String cursor, Integer pageSize) {
+		SeekPage<T> page = new SeekPage<T>(pageSize, cursor);
+		// 游标中记录的是向后翻页时的排序位置
+		Sort seekSort = criteria.generateSeekSort(false);
+		FieldDoc after = SearchCursor.decode(page.getCursorId(), seekSort);
+		// 游标无效或与当前的排序不匹配时从第一页开始
+		if (after == null) {
+			page = new SeekPage<T>(pageSize, null);
+		}
+		Map<String, FieldDoc> docs = criteria.searchAfter(after,
+				pageSize + 1, page.isBackward());
+		boolean hasMore = docs.size() > pageSize;
+		List<Serializable> ids = new ArrayList<Serializable>();
+		List<FieldDoc> fieldDocs = new ArrayList<FieldDoc>();
+		for (Entry<String, FieldDoc> entry : docs.entrySet()) {
+			if (ids.size() == pageSize) {
+				break;
+			}
+			ids.add(toId(entry.getKey()));
+			fieldDocs.add(entry.getValue());
+		}
+		if (page.isBackward()) {
+			Collections.reverse(ids);
+			Collections.reverse(fieldDocs);
+			page.setFirst(!hasMore);
+			page.setLast(false);
+		} else {
+			page.setFirst(page.getCursor() == null);
+			page.setLast(!hasMore);
+		}
+		if (!fieldDocs.isEmpty()) {
+			if (!page.getFirst()) {
+				page.setPrevCursor(SeekPage.before(SearchCursor.encode(
+						fieldDocs.get(0), seekSort)));
+			}
+			if (!page.getLast()) {
+				page.setNextCursor(SeekPage.after(SearchCursor.encode(
+						fieldDocs.get(fieldDocs.size() - 1), seekSort)));
+			}
+		}
+		page.setContents(getAll(ids));
+		return page;
+	}
+
+	/**
+	 * 顺序执行总记录数统计和当前页查询的全文搜索分页查询。
+	 * 
+	 * @param criteria
+	 *            全文搜索查询条件
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	private Page<T> searchPageInSequence(FullTextCriteria criteria,
+			Integer pageNo, Integer pageSize) {
 		FullTextQuery fullTextQuery = criteria.generateQuery();
 		int total = 0;
 		try {
@@ -655,7 +1743,7 @@ public class Dao<T> {
 
 	/**
 	 * 获取查询所能获得的对象总数。<br/>
-	 * 本函数只能自动处理简单的hql语句,复杂的hql查询请另行编写count语句查询。
+	 * 查询语句由CountHqlRewriter改写为count查询语句，包含group by子句等无法改写的查询语句通过滚动查询结果统计总数。
 	 * 
 	 * @param hql
 	 *            查询语句
@@ -664,10 +1752,16 @@ public class Dao<T> {
 	 * @return 返回查询结果总数。
 	 */
 	public Integer count(String hql, Object... values) {
-		String fromHql = hql;
-		fromHql = "from " + StringUtils.substringAfter(fromHql, "from");
-		fromHql = StringUtils.substringBefore(fromHql, "order by");
-		String countHql = "select count(*) " + fromHql;
+		String countHql = COUNT_HQL_REWRITER.rewrite(hql, sessionFactory);
+		if (countHql == null) {
+			ScrollableResults results = createQuery(hql, values).scroll(
+					ScrollMode.SCROLL_INSENSITIVE);
+			try {
+				return results.last() ? results.getRowNumber() + 1 : 0;
+			} finally {
+				results.close();
+			}
+		}
 		return Integer.valueOf(createQuery(countHql, values).uniqueResult()
 				.toString());
 	}
@@ -720,24 +1814,1181 @@ public class Dao<T> {
 	}
 
 	/**
-	 * 获取实体类的主键值。
+	 * 获取实体类的主键值。<br/>
+	 * 未初始化的代理对象的属性值为空，从代理对象的延迟初始化器获取主键值。
 	 * 
 	 * @param entity
 	 *            业务实体
 	 * @return 返回实体类的主键值。
 	 */
 	private Serializable getId(T entity) {
-		return (Serializable) BeanUtils.getField(entity, getIdName());
+		if (entity instanceof HibernateProxy) {
+			return ((HibernateProxy) entity).getHibernateLazyInitializer()
+					.getIdentifier();
+		}
+		return getPersister().getIdentifier(entity,
+				(SessionImplementor) getSession());
 	}
 
 	/**
-	 * 获取实体类的主键名。
+	 * 并行执行总记录数统计和当前页查询的HQL分页查询。<br/>
+	 * 总记录数在独立的只读事务中统计，看不到当前事务中未提交的变更。
 	 * 
-	 * @return 返回实体类的主键名。
+	 * @param hql
+	 *            HQL查询语句
+	 * @param countKey
+	 *            总记录数缓存键
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回查询得到的分页对象。
 	 */
-	private String getIdName() {
-		ClassMetadata meta = sessionFactory.getClassMetadata(clazz);
-		return meta.getIdentifierPropertyName();
+	@SuppressWarnings("unchecked")
+	private Page<T> findPageInParallel(final String hql, String countKey,
+			Integer pageNo, Integer pageSize, final Object... values) {
+		Future<Integer> countFuture = submitCount(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				return count(hql, values);
+			}
+		});
+		if (countFuture == null) {
+			Integer totalCount = count(hql, values);
+			cacheCount(countKey, totalCount);
+			return findPage(hql, pageNo, pageSize, totalCount, values);
+		}
+		List<T> list = createQuery(hql, values)
+				.setFirstResult((Math.max(pageNo, 1) - 1) * pageSize)
+				.setMaxResults(pageSize + 1).list();
+		Page<T> page = completePage(countFuture, list, pageNo, pageSize);
+		if (page.getCounted()) {
+			cacheCount(countKey, page.getCount());
+			if (page.getNumber() < pageNo) {
+				return findPage(hql, pageNo, pageSize, page.getCount(), values);
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * 并行执行总记录数统计和当前页查询的全文搜索分页查询。
+	 * 
+	 * @param criteria
+	 *            全文搜索查询条件
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	private Page<T> searchPageInParallel(FullTextCriteria criteria,
+			Integer pageNo, Integer pageSize) {
+		// Lucene查询和过滤器在当前线程中生成，统计线程只使用生成好的查询对象，不访问全文搜索查询条件和当前Session
+		final org.apache.lucene.search.Query luceneQuery = criteria
+				.generateLuceneQuery();
+		final Filter filter = criteria.generateFilter();
+		Future<Integer> countFuture = submitCount(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				try {
+					FullTextQuery countQuery = getFullTextSession()
+							.createFullTextQuery(luceneQuery, clazz);
+					if (filter != null) {
+						countQuery.setFilter(filter);
+					}
+					return countQuery.getResultSize();
+				} catch (Exception e) {
+					log.warn("实体[" + clazz + "]全文索引文件尚未生成。", e);
+					return 0;
+				}
+			}
+		});
+		if (countFuture == null) {
+			return searchPageInSequence(criteria, pageNo, pageSize);
+		}
+		List<T> list = new ArrayList<T>();
+		try {
+			list = criteria.generateQuery()
+					.setFirstResult((Math.max(pageNo, 1) - 1) * pageSize)
+					.setMaxResults(pageSize + 1).list();
+		} catch (RuntimeException e) {
+			// 只忽略索引文件尚未生成的异常，查询和加载实体时的其它异常直接抛出
+			if (!isIndexNotFound(e)) {
+				throw e;
+			}
+			log.warn("实体[" + clazz + "]全文索引文件尚未生成。", e);
+		}
+		Page<T> page = completePage(countFuture, list, pageNo, pageSize);
+		if (page.getCounted() && page.getNumber() < pageNo) {
+			FullTextQuery fullTextQuery = criteria.generateQuery();
+			fullTextQuery.setFirstResult((page.getNumber() - 1) * pageSize)
+					.setMaxResults(pageSize);
+			page.setContents(fullTextQuery.list());
+		}
+		return page;
+	}
+
+	/**
+	 * 判断异常是否是由索引文件尚未生成引起的。
+	 * 
+	 * @param e
+	 *            异常
+	 * @return 返回是否是由索引文件尚未生成引起的。
+	 */
+	private Boolean isIndexNotFound(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof IndexNotFoundException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 提交总记录数统计任务。
+	 * 
+	 * @param task
+	 *            总记录数统计任务
+	 * @return 返回总记录数的Future对象，没有可用的执行组件、当前已在执行组件的线程中或任务被拒绝时返回null。
+	 */
+	private Future<Integer> submitCount(Callable<Integer> task) {
+		if (readOnlyTaskExecutor == null || readOnlyTaskExecutor.isExecuting()) {
+			return null;
+		}
+		try {
+			return readOnlyTaskExecutor.submit(task);
+		} catch (TaskRejectedException e) {
+			log.warn("并行统计[{}]总记录数的任务被拒绝，改为顺序执行。", clazz.getSimpleName());
+			return null;
+		}
+	}
+
+	/**
+	 * 等待总记录数统计完成并生成分页对象。等待超时时返回未统计总记录数的分页对象。<br/>
+	 * 如果待获取的页数超过了总页数，返回的分页对象的页数为最后一页且不包含记录，由调用方重新查询。
+	 * 
+	 * @param countFuture
+	 *            总记录数的Future对象
+	 * @param list
+	 *            多获取一条记录的当前页查询结果
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回分页对象。
+	 */
+	private Page<T> completePage(Future<Integer> countFuture, List<T> list,
+			Integer pageNo, Integer pageSize) {
+		Integer totalCount;
+		try {
+			totalCount = countFuture.get(parallelCountTimeout,
+					TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			countFuture.cancel(true);
+			log.warn("统计[{}]总记录数超时，返回未统计总记录数的分页对象。", clazz.getSimpleName());
+			return createUncountedPage(list, pageNo, pageSize);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedException("统计总记录数时线程被中断。", e);
+		} catch (ExecutionException e) {
+			throw new UncheckedException("统计总记录数时发生异常。", e.getCause());
+		}
+		if (totalCount < 1) {
+			return new Page<T>(pageSize);
+		}
+		Page<T> page = new Page<T>(totalCount, pageNo, pageSize);
+		if (page.getNumber() >= pageNo) {
+			page.setContents(list.size() > pageSize ? new ArrayList<T>(
+					list.subList(0, pageSize)) : list);
+		}
+		return page;
+	}
+
+	/**
+	 * 获取DTO属性对应的实体属性路径。
+	 * 
+	 * @param dtoClass
+	 *            DTO类
+	 * @return 返回以DTO属性名为键，实体属性路径为值的映射。
+	 */
+	private Map<String, String> getProjectionPaths(Class<?> dtoClass) {
+		Map<String, String> paths = new LinkedHashMap<String, String>();
+		for (Field field : BeanUtils.getAllDeclaredField(dtoClass)) {
+			int modifiers = field.getModifiers();
+			if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+					|| paths.containsKey(field.getName())) {
+				continue;
+			}
+			ProjectionPath projectionPath = field
+					.getAnnotation(ProjectionPath.class);
+			paths.put(field.getName(), projectionPath != null ? projectionPath
+					.value() : field.getName());
+		}
+		return paths;
+	}
+
+	/**
+	 * 解析实体属性路径，将路径中的关联实体转换为连接。<br/>
+	 * 连接别名由关联路径生成，如“creator.organ”的别名为“creator_organ_”。
+	 * 
+	 * @param path
+	 *            实体属性路径
+	 * @param rootAlias
+	 *            查询实体别名，为null时表示不使用别名
+	 * @param joins
+	 *            以连接别名为键，连接路径为值的映射，解析出的连接将添加到其中
+	 * @return 返回使用连接别名的属性路径。
+	 */
+	private String resolveProjectionPath(String path, String rootAlias,
+			Map<String, String> joins) {
+		String[] names = path.split("\\.");
+		ClassMetadata metadata = sessionFactory.getClassMetadata(clazz);
+		ComponentType component = null;
+		String alias = rootAlias;
+		int start = 0;
+		for (int i = 0; i < names.length - 1; i++) {
+			Type type = component == null ? metadata
+					.getPropertyType(names[i]) : component.getSubtypes()[component
+					.getPropertyIndex(names[i])];
+			if (type.isCollectionType()) {
+				throw new UncheckedException("投影属性路径[" + path + "]不能包含集合属性。");
+			}
+			if (type.isEntityType()) {
+				String joinAlias = StringUtils.join(
+						Arrays.copyOfRange(names, 0, i + 1), "_") + "_";
+				joins.put(joinAlias, toPath(alias, names, start, i + 1));
+				alias = joinAlias;
+				start = i + 1;
+				metadata = sessionFactory
+						.getClassMetadata(((EntityType) type)
+								.getAssociatedEntityName());
+				component = null;
+			} else if (type.isComponentType()) {
+				component = (ComponentType) type;
+			}
+		}
+		return toPath(alias, names, start, names.length);
+	}
+
+	/**
+	 * 拼接属性路径。
+	 * 
+	 * @param alias
+	 *            别名，为null时不添加别名
+	 * @param names
+	 *            属性名数组
+	 * @param start
+	 *            起始位置（包含）
+	 * @param end
+	 *            结束位置（不包含）
+	 * @return 返回拼接后的属性路径。
+	 */
+	private String toPath(String alias, String[] names, int start, int end) {
+		String path = StringUtils.join(Arrays.copyOfRange(names, start, end),
+				".");
+		return alias == null ? path : alias + "." + path;
+	}
+
+	/**
+	 * 将属性路径开头的别名替换为实际使用的别名。
+	 * 
+	 * @param path
+	 *            属性路径
+	 * @param renames
+	 *            以原别名为键，实际使用的别名为值的映射
+	 * @return 返回替换别名后的属性路径。
+	 */
+	private String renameAlias(String path, Map<String, String> renames) {
+		String alias = StringUtils.substringBefore(path, ".");
+		if (path.contains(".") && renames.containsKey(alias)) {
+			return renames.get(alias) + path.substring(alias.length());
+		}
+		return path;
+	}
+
+	/**
+	 * 执行查询，启用查询结果缓存时优先从缓存中获取查询结果。
+	 * 
+	 * @param criteria
+	 *            查询条件
+	 * @param cacheKey
+	 *            缓存键
+	 * @return 返回查询结果。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> list(Criteria criteria, String cacheKey) {
+		if (!isQueryCacheUsable()) {
+			return criteria.list();
+		}
+		List<Serializable> ids = queryCache.get(cacheKey);
+		if (ids != null) {
+			log.debug("查询结果缓存命中[{}]。", cacheKey);
+			return getAll(ids);
+		}
+		Long generation = queryCache.getGeneration();
+		List<T> list = criteria.list();
+		ids = new ArrayList<Serializable>();
+		for (T entity : list) {
+			ids.add(getSession().getIdentifier(entity));
+		}
+		queryCache.put(cacheKey, ids, generation);
+		return list;
+	}
+
+	/**
+	 * 判断当前是否可以使用查询结果缓存。<br/>
+	 * 读写事务中可能存在尚未提交的变更，为保证读取到本事务的变更，读写事务中不使用查询结果缓存。
+	 * 
+	 * @return 返回当前是否可以使用查询结果缓存。
+	 */
+	private Boolean isQueryCacheUsable() {
+		if (getQueryCache() == null) {
+			return false;
+		}
+		return !TransactionSynchronizationManager.isActualTransactionActive()
+				|| TransactionSynchronizationManager
+						.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * 将查询参数值转换为缓存键，实体对象使用实体名称和ID。
+	 * 
+	 * @param value
+	 *            查询参数值
+	 * @return 返回缓存键。
+	 */
+	private String toCacheKey(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		Class<?> valueClass = HibernateProxyHelper
+				.getClassWithoutInitializingProxy(value);
+		if (sessionFactory.getClassMetadata(valueClass) != null) {
+			return valueClass.getName() + "#"
+					+ getSession().getIdentifier(value);
+		}
+		return valueClass.getName() + ":" + value;
+	}
+
+	/**
+	 * 根据多获取一条记录的查询结果生成不统计总记录数的分页对象。
+	 * 
+	 * @param list
+	 *            查询结果
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回分页对象。
+	 */
+	private Page<T> createUncountedPage(List<T> list, Integer pageNo,
+			Integer pageSize) {
+		int offset = (Math.max(pageNo, 1) - 1) * pageSize;
+		Boolean hasNext = list.size() > pageSize;
+		if (hasNext) {
+			list = new ArrayList<T>(list.subList(0, pageSize));
+		}
+		if (offset + list.size() < 1) {
+			Page<T> page = new Page<T>(pageSize);
+			page.setCounted(false);
+			return page;
+		}
+		Page<T> page = new Page<T>(offset + list.size() + (hasNext ? 1 : 0),
+				pageNo, pageSize);
+		page.setCounted(false);
+		page.setContents(list);
+		return page;
+	}
+
+	/**
+	 * 缓存查询的总记录数，未启用总记录数缓存时不做任何处理。
+	 * 
+	 * @param key
+	 *            缓存键
+	 * @param totalCount
+	 *            总记录数
+	 */
+	private void cacheCount(String key, Integer totalCount) {
+		if (countCacheSeconds > 0) {
+			countCache.put(key, totalCount, countCacheSeconds);
+		}
+	}
+
+	/**
+	 * 生成查询条件的总记录数缓存键。<br/>
+	 * Criteria的toString方法不输出SQL条件绑定的参数值，实体类型的参数值也只输出对象标识，不能作为缓存键。
+	 * 这里由查询条件翻译出的连接、where子句和带类型的参数值生成缓存键。
+	 * 
+	 * @param criteria
+	 *            查询条件
+	 * @return 返回总记录数缓存键。
+	 */
+	private String getCountKey(Criteria criteria) {
+		CriteriaImpl impl = (CriteriaImpl) criteria;
+		SessionFactoryImplementor factory = getSessionFactoryImplementor();
+		String entityName = factory.getImplementors(impl
+				.getEntityOrClassName())[0];
+		CriteriaQueryTranslator translator = new CriteriaQueryTranslator(
+				factory, impl, entityName,
+				CriteriaQueryTranslator.ROOT_SQL_ALIAS);
+		StringBuilder key = new StringBuilder(entityName);
+		Iterator<Subcriteria> subcriterias = impl.iterateSubcriteria();
+		while (subcriterias.hasNext()) {
+			Subcriteria subcriteria = subcriterias.next();
+			key.append(" ").append(subcriteria.getJoinType()).append(" ")
+					.append(subcriteria.getPath()).append(" ")
+					.append(subcriteria.getAlias());
+		}
+		key.append(" where ").append(translator.getWhereCondition());
+		QueryParameters parameters = translator.getQueryParameters();
+		Type[] types = parameters.getPositionalParameterTypes();
+		Object[] values = parameters.getPositionalParameterValues();
+		for (int i = 0; i < values.length; i++) {
+			key.append(i > 0 ? ", " : " : ").append(
+					values[i] == null ? "null" : types[i].toLoggableString(
+							values[i], factory));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 生成HQL查询语句的总记录数缓存键。<br/>
+	 * 参数值使用与按属性查询缓存键相同的带类型编码，实体对象使用实体名称和ID，
+	 * 并在每个参数值前附加其编码长度，避免参数值中包含分隔符时不同参数组合生成相同的缓存键。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param values
+	 *            参数值
+	 * @return 返回总记录数缓存键。
+	 */
+	private String getCountKey(String hql, Object... values) {
+		StringBuilder key = new StringBuilder(hql);
+		for (Object value : values) {
+			String valueKey = toCacheKey(value);
+			key.append("|").append(valueKey.length()).append(":")
+					.append(valueKey);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 将字符串转换为实体类的主键值。
+	 * 
+	 * @param id
+	 *            字符串形式的主键值
+	 * @return 返回实体类的主键值。
+	 */
+	private Serializable toId(String id) {
+		if (id == null) {
+			return null;
+		}
+		Class<?> idClass = sessionFactory.getClassMetadata(clazz)
+				.getIdentifierType().getReturnedClass();
+		return (Serializable) new SimpleTypeConverter().convertIfNecessary(id,
+				idClass);
+	}
+
+	/**
+	 * 获取指定ID的业务实体的属性值，只查询该属性不加载实体。
+	 * 
+	 * @param id
+	 *            实体ID
+	 * @param name
+	 *            属性名
+	 * @return 返回属性值，如果实体不存在则返回null。
+	 */
+	private Object getPropertyValue(Serializable id, String name) {
+		if (id == null) {
+			return null;
+		}
+		return createCriteria(Restrictions.idEq(id)).setProjection(
+				Projections.property(name)).uniqueResult();
+	}
+
+	/**
+	 * 根据多查询一条的查询结果填充游标分页对象。
+	 * 
+	 * @param page
+	 *            游标分页对象
+	 * @param list
+	 *            查询结果，最多比每页记录数多一条
+	 */
+	private void fillSeekPage(SeekPage<T> page, List<T> list) {
+		boolean hasMore = list.size() > page.getSize();
+		List<T> contents = new ArrayList<T>(hasMore ? list.subList(0,
+				page.getSize()) : list);
+		if (page.isBackward()) {
+			Collections.reverse(contents);
+			page.setFirst(!hasMore);
+			page.setLast(false);
+		} else {
+			page.setFirst(page.getCursor() == null);
+			page.setLast(!hasMore);
+		}
+		if (!contents.isEmpty()) {
+			if (!page.getFirst()) {
+				page.setPrevCursor(SeekPage.before(getId(contents.get(0))));
+			}
+			if (!page.getLast()) {
+				page.setNextCursor(SeekPage.after(getId(contents
+						.get(contents.size() - 1))));
+			}
+		}
+		page.setContents(contents);
+	}
+
+	/**
+	 * 根据ID批量删除指定类型的业务实体。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 * @param ids
+	 *            待删除实体ID集合
+	 * @return 返回删除的记录数。
+	 */
+	private int removeAll(EntityPersister persister, Set<Serializable> ids) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		String entityName = persister.getEntityName();
+		String idName = persister.getIdentifierPropertyName();
+		if (!isBulkRemovable(persister)) {
+			int count = 0;
+			for (List<Serializable> chunk : split(ids)) {
+				for (Object entity : getSession().createCriteria(entityName)
+						.add(Restrictions.in(idName, chunk)).list()) {
+					getSession().delete(entity);
+					count++;
+				}
+			}
+			getSession().flush();
+			return count;
+		}
+		String[] names = persister.getPropertyNames();
+		Type[] types = persister.getPropertyTypes();
+		CascadeStyle[] cascadeStyles = persister.getPropertyCascadeStyles();
+		for (int i = 0; i < names.length; i++) {
+			if (types[i].isCollectionType()
+					&& (cascadeStyles[i].doCascade(CascadingActions.DELETE) || cascadeStyles[i]
+							.hasOrphanDelete())) {
+				String role = ((CollectionType) types[i]).getRole();
+				EntityPersister childPersister = ((QueryableCollection) getSessionFactoryImplementor()
+						.getCollectionPersister(role)).getElementPersister();
+				String childHql = "select c."
+						+ childPersister.getIdentifierPropertyName() + " from "
+						+ entityName + " e join e." + names[i]
+						+ " c where e." + idName + " in (:ids)";
+				Set<Serializable> childIds = new LinkedHashSet<Serializable>();
+				for (List<Serializable> chunk : split(ids)) {
+					for (Object childId : getSession().createQuery(childHql)
+							.setParameterList("ids", chunk).list()) {
+						childIds.add((Serializable) childId);
+					}
+				}
+				// 自关联的下级实体可能已包含在待删除实体中
+				if (childPersister.getEntityName().equals(entityName)) {
+					childIds.removeAll(ids);
+				}
+				removeAll(childPersister, childIds);
+				for (Serializable id : ids) {
+					sessionFactory.getCache().evictCollection(role, id);
+				}
+			}
+		}
+		evict(persister, ids);
+		purgeIndex(persister, ids);
+		int count = 0;
+		String deleteHql = "delete from " + entityName + " where " + idName
+				+ " in (:ids)";
+		for (Set<Serializable> level : sortLeafFirst(persister, ids)) {
+			for (List<Serializable> chunk : split(level)) {
+				count += getSession().createQuery(deleteHql)
+						.setParameterList("ids", chunk).executeUpdate();
+			}
+		}
+		evictReferencingCollections(entityName);
+		OutboxEventListener.capture(getSession(), persister, ids,
+				OutboxEventEntity.DELETE, null);
+		return count;
+	}
+
+	/**
+	 * 将待删除实体的ID按自关联的上下级关系分层，下级实体所在的层在前，删除每一层时其它待删除实体都不再引用该层的实体。<br/>
+	 * 数据库逐行检查外键约束，上下级实体在同一条或不同的delete语句中以任意顺序删除时，先删除上级实体会违反外键约束。<br/>
+	 * 存在循环引用时，先将剩余实体的自关联属性置为null再一起删除。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 * @param ids
+	 *            待删除实体ID集合
+	 * @return 返回按删除顺序排列的实体ID分层。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Set<Serializable>> sortLeafFirst(EntityPersister persister,
+			Set<Serializable> ids) {
+		String entityName = persister.getEntityName();
+		String idName = persister.getIdentifierPropertyName();
+		String[] names = persister.getPropertyNames();
+		Type[] types = persister.getPropertyTypes();
+		List<String> selfNames = new ArrayList<String>();
+		for (int i = 0; i < names.length; i++) {
+			if (types[i].isEntityType()
+					&& entityName.equals(((EntityType) types[i])
+							.getAssociatedEntityName())) {
+				selfNames.add(names[i]);
+			}
+		}
+		if (selfNames.isEmpty()) {
+			return Collections.singletonList(ids);
+		}
+		// 以实体ID为键，该实体引用的待删除上级实体ID为值
+		Map<Serializable, Set<Serializable>> parentIds = new HashMap<Serializable, Set<Serializable>>();
+		for (String name : selfNames) {
+			String hql = "select e." + idName + ", p." + idName + " from "
+					+ entityName + " e join e." + name + " p where e."
+					+ idName + " in (:ids)";
+			for (List<Serializable> chunk : split(ids)) {
+				for (Object[] row : (List<Object[]>) getSession()
+						.createQuery(hql).setParameterList("ids", chunk)
+						.list()) {
+					Serializable id = (Serializable) row[0];
+					Serializable parentId = (Serializable) row[1];
+					if (ids.contains(parentId) && !parentId.equals(id)) {
+						if (!parentIds.containsKey(id)) {
+							parentIds.put(id, new HashSet<Serializable>());
+						}
+						parentIds.get(id).add(parentId);
+					}
+				}
+			}
+		}
+		List<Set<Serializable>> levels = new ArrayList<Set<Serializable>>();
+		Set<Serializable> remaining = new LinkedHashSet<Serializable>(ids);
+		while (!remaining.isEmpty()) {
+			Set<Serializable> referencedIds = new HashSet<Serializable>();
+			for (Serializable id : remaining) {
+				if (parentIds.containsKey(id)) {
+					referencedIds.addAll(parentIds.get(id));
+				}
+			}
+			Set<Serializable> level = new LinkedHashSet<Serializable>();
+			for (Serializable id : remaining) {
+				if (!referencedIds.contains(id)) {
+					level.add(id);
+				}
+			}
+			if (level.isEmpty()) {
+				for (String name : selfNames) {
+					String hql = "update " + entityName + " set " + name
+							+ " = null where " + idName + " in (:ids)";
+					for (List<Serializable> chunk : split(remaining)) {
+						getSession().createQuery(hql)
+								.setParameterList("ids", chunk)
+								.executeUpdate();
+					}
+				}
+				level.addAll(remaining);
+			}
+			remaining.removeAll(level);
+			levels.add(level);
+		}
+		return levels;
+	}
+
+	/**
+	 * 判断实体是否可以用delete语句批量删除，即没有delete语句无法处理的级联删除和中间表，
+	 * 也没有需要删除事件来重建所属实体全文索引的ContainedIn注解。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 * @return 返回实体是否可以用delete语句批量删除。
+	 */
+	private boolean isBulkRemovable(EntityPersister persister) {
+		Class<?> mappedClass = persister.getMappedClass();
+		if (hasContainedIn(mappedClass)) {
+			return false;
+		}
+		Type[] types = persister.getPropertyTypes();
+		CascadeStyle[] cascadeStyles = persister.getPropertyCascadeStyles();
+		for (int i = 0; i < types.length; i++) {
+			if (types[i].isCollectionType()) {
+				QueryableCollection collectionPersister = (QueryableCollection) getSessionFactoryImplementor()
+						.getCollectionPersister(
+								((CollectionType) types[i]).getRole());
+				if (!collectionPersister.isOneToMany()
+						|| !collectionPersister.isInverse()) {
+					return false;
+				}
+			} else if (types[i].isEntityType()
+					&& cascadeStyles[i].doCascade(CascadingActions.DELETE)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 判断实体类或其父类的属性或getter方法上是否声明了ContainedIn注解。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回是否声明了ContainedIn注解。
+	 */
+	private boolean hasContainedIn(Class<?> entityClass) {
+		for (Class<?> clazz = entityClass; clazz != null
+				&& clazz != Object.class; clazz = clazz.getSuperclass()) {
+			for (Field field : clazz.getDeclaredFields()) {
+				if (field.isAnnotationPresent(ContainedIn.class)) {
+					return true;
+				}
+			}
+			for (Method method : clazz.getDeclaredMethods()) {
+				if (method.isAnnotationPresent(ContainedIn.class)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 从当前Session和二级缓存中清除指定ID的实体。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 * @param ids
+	 *            实体ID集合
+	 */
+	private void evict(EntityPersister persister, Collection<Serializable> ids) {
+		SessionImplementor session = (SessionImplementor) getSession();
+		for (Serializable id : ids) {
+			Object entity = session.getPersistenceContext().getEntity(
+					session.generateEntityKey(id, persister));
+			if (entity != null) {
+				getSession().evict(entity);
+			}
+			sessionFactory.getCache().evictEntity(persister.getEntityName(),
+					id);
+		}
+		DaoQueryCacheInvalidator.invalidate(sessionFactory, persister);
+	}
+
+	/**
+	 * 清除以指定实体为元素的集合缓存。
+	 * 
+	 * @param entityName
+	 *            实体名称
+	 */
+	private void evictReferencingCollections(String entityName) {
+		for (Object metadata : sessionFactory.getAllCollectionMetadata()
+				.values()) {
+			CollectionMetadata collectionMetadata = (CollectionMetadata) metadata;
+			Type elementType = collectionMetadata.getElementType();
+			if (elementType.isEntityType()
+					&& entityName.equals(((EntityType) elementType)
+							.getAssociatedEntityName())) {
+				sessionFactory.getCache().evictCollectionRegion(
+						collectionMetadata.getRole());
+			}
+		}
+	}
+
+	/**
+	 * 清除指定ID的实体的全文索引。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 * @param ids
+	 *            实体ID集合
+	 */
+	private void purgeIndex(EntityPersister persister,
+			Collection<Serializable> ids) {
+		Class<?> entityClass = persister.getMappedClass();
+		if (entityClass.isAnnotationPresent(Indexed.class)) {
+			FullTextSession fullTextSession = getFullTextSession();
+			for (Serializable id : ids) {
+				fullTextSession.purge(entityClass, id);
+			}
+		}
+	}
+
+	/**
+	 * 判断属性中是否包含全文索引字段。
+	 * 
+	 * @param names
+	 *            属性名列表
+	 * @return 返回属性中是否包含全文索引字段。
+	 */
+	private boolean isIndexedProperty(List<String> names) {
+		if (!clazz.isAnnotationPresent(Indexed.class)) {
+			return false;
+		}
+		for (String field : searchFields.keySet()) {
+			for (String name : names) {
+				if (field.equals(name) || field.startsWith(name + ".")) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 分批加载指定ID的实体并重建其全文索引，每批处理完成后将索引变更写入索引队列并从当前Session中清除这些实体。
+	 * 
+	 * @param ids
+	 *            实体ID集合
+	 */
+	private void reindex(List<Serializable> ids) {
+		FullTextSession fullTextSession = getFullTextSession();
+		for (List<Serializable> chunk : split(ids)) {
+			List<T> entities = getAll(chunk);
+			for (T entity : entities) {
+				fullTextSession.index(entity);
+			}
+			fullTextSession.flushToIndexes();
+			for (T entity : entities) {
+				getSession().evict(entity);
+			}
+		}
+	}
+
+	/**
+	 * 将集合拆分成适合in条件的多个列表。
+	 * 
+	 * @param <E>
+	 *            元素类型
+	 * @param values
+	 *            集合
+	 * @return 返回拆分后的列表。
+	 */
+	private <E> List<List<E>> split(Collection<E> values) {
+		return split(values, getInChunkSize());
+	}
+
+	/**
+	 * 将集合拆分成指定大小的多个列表。
+	 * 
+	 * @param <E>
+	 *            元素类型
+	 * @param values
+	 *            集合
+	 * @param chunkSize
+	 *            每个列表的大小
+	 * @return 返回拆分后的列表。
+	 */
+	private <E> List<List<E>> split(Collection<E> values, int chunkSize) {
+		List<List<E>> chunks = new ArrayList<List<E>>();
+		List<E> chunk = new ArrayList<E>();
+		for (E value : values) {
+			chunk.add(value);
+			if (chunk.size() == chunkSize) {
+				chunks.add(chunk);
+				chunk = new ArrayList<E>();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	/**
+	 * 获取in条件中每批的参数个数，不超过数据库适配器的限制。
+	 * 
+	 * @return 返回in条件中每批的参数个数。
+	 */
+	private int getInChunkSize() {
+		int limit = getSessionFactoryImplementor().getDialect()
+				.getInExpressionCountLimit();
+		return limit > 0 ? Math.min(limit, IN_CHUNK_SIZE) : IN_CHUNK_SIZE;
+	}
+
+	/**
+	 * 获取实体类的持久化器。
+	 * 
+	 * @return 返回实体类的持久化器。
+	 */
+	private EntityPersister getPersister() {
+		return getSessionFactoryImplementor().getEntityPersister(
+				sessionFactory.getClassMetadata(clazz).getEntityName());
+	}
+
+	/**
+	 * 获取SessionFactory的内部实现接口。
+	 * 
+	 * @return 返回SessionFactory的内部实现接口。
+	 */
+	private SessionFactoryImplementor getSessionFactoryImplementor() {
+		return (SessionFactoryImplementor) sessionFactory;
+	}
+
+	/**
+	 * 当处理的实体数达到每批处理的实体数时刷新并清理当前Session。
+	 * 
+	 * @param count
+	 *            已处理的实体数，为0时直接刷新并清理
+	 * @param chunkSize
+	 *            每批处理的实体数
+	 */
+	private void flushAndClear(int count, int chunkSize) {
+		if (count % chunkSize == 0) {
+			getSession().flush();
+			getSession().clear();
+		}
+	}
+
+	/**
+	 * 记录批量处理的耗时和吞吐量。
+	 * 
+	 * @param action
+	 *            处理动作
+	 * @param count
+	 *            处理的实体数
+	 * @param startTime
+	 *            开始时间
+	 */
+	private void logThroughput(String action, int count, long startTime) {
+		long time = Math.max(System.currentTimeMillis() - startTime, 1);
+		log.info("批量{}实体[{}]{}条，耗时{}毫秒，{}条/秒。", action,
+				clazz.getSimpleName(), count, time, count * 1000L / time);
+	}
+
+	/**
+	 * 开始获取所有业务实体的查询预算，限制读取的记录行数和耗时，防止无条件查询长时间占用数据库连接。
+	 * 
+	 * @param method
+	 *            方法名
+	 */
+	private void beginAllBudget(String method) {
+		QueryBudget.begin(clazz.getSimpleName() + "." + method, 0, allMaxRows,
+				allMaxMillis);
+	}
+
+	/**
+	 * 获取JDBC批量写入的记录数。
+	 * 
+	 * @return 返回JDBC批量写入的记录数，未设置时返回默认值25。
+	 */
+	private Integer getJdbcBatchSize() {
+		int batchSize = getSessionFactoryImplementor().getSettings()
+				.getJdbcBatchSize();
+		return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+	}
+
+	/**
+	 * 逐条处理游标查询结果。
+	 * 
+	 * @param results
+	 *            游标查询结果
+	 * @param batchSize
+	 *            每批处理的记录数，为null时不刷新和清理当前Session
+	 * @param callback
+	 *            回调接口
+	 * @return 返回处理的记录数。
+	 */
+	@SuppressWarnings("unchecked")
+	private Integer scroll(ScrollableResults results, Integer batchSize,
+			ScrollCallback<T> callback) {
+		int count = 0;
+		try {
+			while (results.next()) {
+				callback.process((T) results.get(0));
+				count++;
+				if (batchSize != null && count % batchSize == 0) {
+					getSession().flush();
+					getSession().clear();
+				}
+			}
+		} finally {
+			results.close();
+		}
+		if (batchSize != null) {
+			getSession().flush();
+			getSession().clear();
+		}
+		return count;
+	}
+
+	/**
+	 * 获取实体类的主键名。
+	 * 
+	 * @return 返回实体类的主键名。
+	 */
+	private String getIdName() {
+		ClassMetadata meta = sessionFactory.getClassMetadata(clazz);
+		return meta.getIdentifierPropertyName();
+	}
+
+	/**
+	 * 获取抓取计划的关联属性路径。
+	 * 
+	 * @param fetchPlan
+	 *            抓取计划名称
+	 * @return 返回抓取计划的关联属性路径。
+	 */
+	private String[] getFetchPaths(String fetchPlan) {
+		String[] paths = fetchPlans.get(fetchPlan);
+		if (paths == null) {
+			throw new UncheckedException("业务实体[" + clazz.getSimpleName()
+					+ "]未定义抓取计划[" + fetchPlan + "]。");
+		}
+		return paths;
+	}
+
+	/**
+	 * 根据ID集合查询业务实体并join fetch指定的关联属性，已在当前Session中的业务实体将同时完成关联属性的加载。<br/>
+	 * 同时抓取多个bag集合时Hibernate会拒绝生成查询语句，此时改为逐级加载关联属性，每级一条查询语句。
+	 * 
+	 * @param ids
+	 *            ID集合
+	 * @param paths
+	 *            关联属性路径
+	 * @return 返回查询到的业务实体列表。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> fetchByIds(List<Serializable> ids, String[] paths) {
+		List<T> result = new ArrayList<T>();
+		if (ids.isEmpty()) {
+			return result;
+		}
+		String hql = createFetchHql(getPersister().getEntityName(),
+				Arrays.asList(paths));
+		List<Object> entities;
+		try {
+			entities = fetchByIds(hql, ids);
+		} catch (MultipleBagFetchException e) {
+			log.debug("实体[{}]同时抓取多个bag集合，改为逐级加载关联属性。", clazz.getSimpleName());
+			entities = fetchByIds(createFetchHql(getPersister()
+					.getEntityName(), Collections.<String> emptyList()), ids);
+			for (String path : paths) {
+				fetchByLevels(entities, path.split("\\."));
+			}
+		}
+		for (Object entity : entities) {
+			if (entity instanceof HibernateProxy) {
+				entity = ((HibernateProxy) entity)
+						.getHibernateLazyInitializer().getImplementation();
+			}
+			result.add((T) entity);
+		}
+		return result;
+	}
+
+	/**
+	 * 以ID集合作为参数分批执行抓取查询语句。
+	 * 
+	 * @param hql
+	 *            抓取查询语句
+	 * @param ids
+	 *            ID集合
+	 * @return 返回去重后的查询结果。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Object> fetchByIds(String hql, List<Serializable> ids) {
+		Set<Object> entities = new LinkedHashSet<Object>();
+		for (List<Serializable> chunk : split(ids)) {
+			entities.addAll(getSession().createQuery(hql)
+					.setParameterList("ids", chunk)
+					.setFlushMode(FlushMode.MANUAL).list());
+		}
+		return new ArrayList<Object>(entities);
+	}
+
+	/**
+	 * 逐级加载关联属性，每级以上一级的实体ID作为in条件join fetch下一级的关联属性。
+	 * 
+	 * @param owners
+	 *            第一级关联属性的所属实体
+	 * @param names
+	 *            关联属性路径的各级属性名
+	 */
+	private void fetchByLevels(List<Object> owners, String[] names) {
+		for (String name : names) {
+			if (owners.isEmpty()) {
+				return;
+			}
+			String entityName = getSession().getEntityName(owners.get(0));
+			ClassMetadata meta = sessionFactory.getClassMetadata(entityName);
+			List<Serializable> ids = new ArrayList<Serializable>();
+			for (Object owner : owners) {
+				ids.add(getSession().getIdentifier(owner));
+			}
+			fetchByIds(createFetchHql(entityName, Collections
+					.singletonList(name)), ids);
+			List<Object> values = new ArrayList<Object>();
+			for (Object owner : owners) {
+				if (owner instanceof HibernateProxy) {
+					owner = ((HibernateProxy) owner)
+							.getHibernateLazyInitializer().getImplementation();
+				}
+				Object value = meta.getPropertyValue(owner, name);
+				if (value instanceof Collection) {
+					values.addAll((Collection<?>) value);
+				} else if (value != null) {
+					values.add(value);
+				}
+			}
+			owners = new ArrayList<Object>(new LinkedHashSet<Object>(values));
+		}
+	}
+
+	/**
+	 * 生成根据ID集合查询实体并join fetch指定关联属性的HQL语句，关联属性路径的各级父路径自动一并抓取。
+	 * 
+	 * @param entityName
+	 *            实体名称
+	 * @param paths
+	 *            关联属性路径
+	 * @return 返回HQL语句。
+	 */
+	private String createFetchHql(String entityName, List<String> paths) {
+		Map<String, String> aliases = new TreeMap<String, String>();
+		for (String path : paths) {
+			String[] names = path.split("\\.");
+			for (int i = 1; i <= names.length; i++) {
+				aliases.put(toPath(null, names, 0, i), null);
+			}
+		}
+		StringBuilder hql = new StringBuilder("select distinct e from "
+				+ entityName + " e");
+		int index = 0;
+		for (String path : aliases.keySet()) {
+			String alias = "f" + index++;
+			String parent = path.contains(".") ? aliases.get(StringUtils
+					.substringBeforeLast(path, ".")) : "e";
+			String name = path.contains(".") ? StringUtils.substringAfterLast(
+					path, ".") : path;
+			hql.append(" left join fetch ").append(parent).append(".")
+					.append(name).append(" ").append(alias);
+			aliases.put(path, alias);
+		}
+		String idName = sessionFactory.getClassMetadata(entityName)
+				.getIdentifierPropertyName();
+		return hql.append(" where e.").append(idName).append(" in (:ids)")
+				.toString();
+	}
+
+	/**
+	 * 初始化业务实体类上标注的抓取计划。
+	 */
+	private void initFetchPlans() {
+		List<FetchPlan> plans = new ArrayList<FetchPlan>();
+		if (clazz.isAnnotationPresent(FetchPlan.class)) {
+			plans.add(clazz.getAnnotation(FetchPlan.class));
+		}
+		if (clazz.isAnnotationPresent(FetchPlans.class)) {
+			plans.addAll(Arrays.asList(clazz.getAnnotation(FetchPlans.class)
+					.value()));
+		}
+		for (FetchPlan plan : plans) {
+			fetchPlans.put(plan.name(), plan.paths());
+		}
 	}
 
 	/**
@@ -784,7 +3035,7 @@ public class Dao<T> {
 			Field embeddedEntityField) {
 		Class<?> embeddedClass = embeddedEntityField.getType();
 		if (Collection.class.isAssignableFrom(embeddedClass)) {
-			Type fc = embeddedEntityField.getGenericType();
+			java.lang.reflect.Type fc = embeddedEntityField.getGenericType();
 			if (fc instanceof ParameterizedType) {
 				ParameterizedType pt = (ParameterizedType) fc;
 				embeddedClass = (Class<?>) pt.getActualTypeArguments()[0];
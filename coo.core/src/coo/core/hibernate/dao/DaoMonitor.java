@@ -0,0 +1,198 @@
+package coo.core.hibernate.dao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Criteria;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import coo.base.exception.UncheckedException;
+import coo.core.hibernate.search.FullTextCriteria;
+import coo.core.jackson.GenericObjectMapper;
+
+/**
+ * Dao耗时监控切面。<br/>
+ * 按“业务实体类名.方法名”分别记录Dao查询和写入方法的耗时直方图，耗时超过慢查询阈值时输出查询语句及参数。<br/>
+ * 同名的重载方法记录在同一个直方图中，Dao内部方法间的调用不重复记录。<br/>
+ * 未启用时由DaoMonitorPostProcessor移除切面，Dao不会被代理。
+ */
+@Aspect
+public class DaoMonitor {
+	/** 记录耗时的Dao方法 */
+	private static final Set<String> MONITORED_METHODS = new HashSet<String>(
+			Arrays.asList("get", "load", "getAll", "findBy", "findUnique",
+					"findPage", "findPageWithoutCount", "seekPage",
+					"searchBy", "searchAll", "searchUnique", "searchPage",
+					"searchSeekPage", "count", "isUnique", "findDuplicates",
+					"forEach", "forEachStateless", "persist", "save", "update",
+					"merge", "persistAll", "saveAll", "mergeAll", "updateBy",
+					"remove", "removeAll", "removeBy"));
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** 是否启用监控 */
+	private Boolean enabled = false;
+	/** 慢查询阈值毫秒数，为0时不输出慢查询日志 */
+	private Integer slowQueryMillis = 1000;
+	private ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+
+	/**
+	 * 切面处理方法。
+	 * 
+	 * @param joinPoint
+	 *            切入点
+	 * @throws Throwable
+	 *             切面处理失败时抛出异常。
+	 * @return 返回方法本身返回的对象。
+	 */
+	@Around("execution(public * coo.core.hibernate.dao.Dao.*(..))")
+	public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+		String method = joinPoint.getSignature().getName();
+		if (!enabled || !MONITORED_METHODS.contains(method)) {
+			return joinPoint.proceed();
+		}
+		long startTime = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			long micros = (System.nanoTime() - startTime) / 1000;
+			String name = ((Dao<?>) joinPoint.getTarget()).getEntityClass()
+					.getSimpleName() + "." + method;
+			getHistogram(name).record(micros);
+			if (slowQueryMillis > 0 && micros >= slowQueryMillis * 1000L) {
+				log.warn("慢查询[{}]耗时{}ms：{}", name, micros / 1000,
+						describe(joinPoint.getArgs()));
+			}
+		}
+	}
+
+	/**
+	 * 获取耗时统计。
+	 * 
+	 * @return 返回以“业务实体类名.方法名”为键的耗时统计，耗时单位为毫秒。
+	 */
+	public Map<String, Map<String, Object>> getStatistics() {
+		Map<String, Map<String, Object>> statistics = new TreeMap<String, Map<String, Object>>();
+		for (Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			Map<String, Object> stat = new LinkedHashMap<String, Object>();
+			stat.put("count", histogram.getCount());
+			stat.put("mean", toMillis(histogram.getMean()));
+			stat.put("p50", toMillis(histogram.getPercentile(50)));
+			stat.put("p90", toMillis(histogram.getPercentile(90)));
+			stat.put("p99", toMillis(histogram.getPercentile(99)));
+			stat.put("p999", toMillis(histogram.getPercentile(99.9)));
+			stat.put("max", toMillis(histogram.getMax()));
+			statistics.put(entry.getKey(), stat);
+		}
+		return statistics;
+	}
+
+	/**
+	 * 获取JSON格式的耗时统计。
+	 * 
+	 * @return 返回JSON格式的耗时统计。
+	 */
+	public String toJson() {
+		try {
+			return new GenericObjectMapper()
+					.writeValueAsString(getStatistics());
+		} catch (JsonProcessingException e) {
+			throw new UncheckedException("生成Dao耗时统计JSON时发生异常。", e);
+		}
+	}
+
+	/**
+	 * 清空耗时统计。
+	 */
+	public void reset() {
+		histograms.clear();
+	}
+
+	/**
+	 * 获取指定名称的耗时直方图，不存在时创建。
+	 * 
+	 * @param name
+	 *            名称
+	 * @return 返回耗时直方图。
+	 */
+	private LatencyHistogram getHistogram(String name) {
+		LatencyHistogram histogram = histograms.get(name);
+		if (histogram == null) {
+			histograms.putIfAbsent(name, new LatencyHistogram());
+			histogram = histograms.get(name);
+		}
+		return histogram;
+	}
+
+	/**
+	 * 生成方法参数的描述。查询语句、查询条件和简单类型的参数输出其内容，集合只输出大小，其它对象只输出类名，避免触发延迟加载。
+	 * 
+	 * @param args
+	 *            方法参数
+	 * @return 返回方法参数的描述。
+	 */
+	private String describe(Object[] args) {
+		StringBuilder builder = new StringBuilder();
+		for (Object arg : args) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			if (arg == null || arg instanceof CharSequence
+					|| arg instanceof Number || arg instanceof Boolean
+					|| arg instanceof Date || arg instanceof Enum
+					|| arg instanceof Criteria
+					|| arg instanceof FullTextCriteria) {
+				builder.append(arg);
+			} else if (arg instanceof Object[]) {
+				builder.append(Arrays.deepToString((Object[]) arg));
+			} else if (arg instanceof Collection) {
+				builder.append("[").append(((Collection<?>) arg).size())
+						.append(" items]");
+			} else {
+				builder.append(arg.getClass().getSimpleName());
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 将微秒数转换为毫秒数，保留3位小数。
+	 * 
+	 * @param micros
+	 *            微秒数
+	 * @return 返回毫秒数。
+	 */
+	private Double toMillis(Long micros) {
+		return micros / 1000d;
+	}
+
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Integer getSlowQueryMillis() {
+		return slowQueryMillis;
+	}
+
+	public void setSlowQueryMillis(Integer slowQueryMillis) {
+		this.slowQueryMillis = slowQueryMillis;
+	}
+}
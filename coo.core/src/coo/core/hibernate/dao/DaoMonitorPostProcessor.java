@@ -0,0 +1,47 @@
+package coo.core.hibernate.dao;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+
+/**
+ * Dao耗时监控切面的注册开关。<br/>
+ * 全局配置文件中未启用Dao耗时监控（db.monitor.enabled不为true）时移除Dao耗时监控切面的Bean定义。<br/>
+ * 切面的切入点匹配Dao的所有公共方法，只要注册了切面，所有Dao都会被创建为CGLIB代理，因此未启用时不注册切面。
+ */
+public class DaoMonitorPostProcessor implements BeanFactoryPostProcessor {
+	/** Dao耗时监控切面的Bean名称 */
+	private String monitorBeanName = "daoMonitor";
+
+	@Override
+	public void postProcessBeanFactory(
+			ConfigurableListableBeanFactory beanFactory) {
+		if (!isEnabled(beanFactory)
+				&& beanFactory.containsBeanDefinition(monitorBeanName)) {
+			((BeanDefinitionRegistry) beanFactory)
+					.removeBeanDefinition(monitorBeanName);
+		}
+	}
+
+	/**
+	 * 从全局配置文件读取是否启用Dao耗时监控。
+	 * 
+	 * @param beanFactory
+	 *            Bean工厂
+	 * @return 返回是否启用Dao耗时监控。
+	 */
+	private Boolean isEnabled(ConfigurableListableBeanFactory beanFactory) {
+		String value = beanFactory
+				.resolveEmbeddedValue("${db.monitor.enabled:false}");
+		// 没有配置属性占位符解析器时原样返回，视为未启用
+		return "true".equalsIgnoreCase(value.trim());
+	}
+
+	public String getMonitorBeanName() {
+		return monitorBeanName;
+	}
+
+	public void setMonitorBeanName(String monitorBeanName) {
+		this.monitorBeanName = monitorBeanName;
+	}
+}
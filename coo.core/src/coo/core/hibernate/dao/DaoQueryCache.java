@@ -0,0 +1,116 @@
+package coo.core.hibernate.dao;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dao查询结果缓存。<br/>
+ * 缓存查询结果的实体ID列表，命中时再根据ID从会话或二级缓存中获取实体。
+ */
+public class DaoQueryCache {
+	/** 业务实体类 */
+	private Class<?> entityClass;
+	/** 最大缓存查询数 */
+	private Integer maxSize;
+	private Map<String, List<Serializable>> entries = new ConcurrentHashMap<String, List<Serializable>>();
+	/** 缓存版本，每次失效时递增，用于丢弃失效前开始的查询结果 */
+	private AtomicLong generation = new AtomicLong();
+	private AtomicLong hitCount = new AtomicLong();
+	private AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param entityClass
+	 *            业务实体类
+	 * @param maxSize
+	 *            最大缓存查询数
+	 */
+	public DaoQueryCache(Class<?> entityClass, Integer maxSize) {
+		this.entityClass = entityClass;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * 获取缓存的查询结果ID列表。
+	 * 
+	 * @param key
+	 *            缓存键
+	 * @return 返回缓存的查询结果ID列表，没有缓存时返回null。
+	 */
+	public List<Serializable> get(String key) {
+		List<Serializable> ids = entries.get(key);
+		if (ids == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return ids;
+	}
+
+	/**
+	 * 缓存查询结果ID列表。如果查询开始后缓存已失效，则不缓存该查询结果。
+	 * 
+	 * @param key
+	 *            缓存键
+	 * @param ids
+	 *            查询结果ID列表
+	 * @param queryGeneration
+	 *            查询开始时的缓存版本
+	 */
+	public void put(String key, List<Serializable> ids, Long queryGeneration) {
+		if (entries.size() >= maxSize) {
+			entries.clear();
+		}
+		entries.put(key, ids);
+		if (generation.get() != queryGeneration) {
+			entries.remove(key);
+		}
+	}
+
+	/**
+	 * 使所有缓存的查询结果失效。
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	/**
+	 * 获取当前缓存版本。
+	 * 
+	 * @return 返回当前缓存版本。
+	 */
+	public Long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * 获取缓存命中率。
+	 * 
+	 * @return 返回缓存命中率。
+	 */
+	public Double getHitRatio() {
+		long total = hitCount.get() + missCount.get();
+		return total == 0 ? 0D : (double) hitCount.get() / total;
+	}
+
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	public Integer getSize() {
+		return entries.size();
+	}
+
+	public Long getHitCount() {
+		return hitCount.get();
+	}
+
+	public Long getMissCount() {
+		return missCount.get();
+	}
+}
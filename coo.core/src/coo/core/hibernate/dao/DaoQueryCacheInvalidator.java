@@ -0,0 +1,138 @@
+package coo.core.hibernate.dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Dao查询结果缓存失效监听器。<br/>
+ * 在实体的新增、修改、删除提交后，使该实体类型（及其父类型）的查询结果缓存失效。
+ */
+public class DaoQueryCacheInvalidator implements PostCommitInsertEventListener,
+		PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+	private static final long serialVersionUID = -4785420813695032207L;
+	private List<DaoQueryCache> caches = new CopyOnWriteArrayList<DaoQueryCache>();
+
+	/**
+	 * 注册查询结果缓存，同一个SessionFactory只注册一个监听器。
+	 * 
+	 * @param sessionFactory
+	 *            SessionFactory
+	 * @param cache
+	 *            查询结果缓存
+	 */
+	public static synchronized void register(SessionFactory sessionFactory,
+			DaoQueryCache cache) {
+		EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		for (Object listener : registry.getEventListenerGroup(
+				EventType.POST_COMMIT_INSERT).listeners()) {
+			if (listener instanceof DaoQueryCacheInvalidator) {
+				((DaoQueryCacheInvalidator) listener).caches.add(cache);
+				return;
+			}
+		}
+		DaoQueryCacheInvalidator invalidator = new DaoQueryCacheInvalidator();
+		invalidator.caches.add(cache);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, invalidator);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, invalidator);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, invalidator);
+	}
+
+	/**
+	 * 使实体类型对应的查询结果缓存失效，用于不触发实体事件的批量操作。<br/>
+	 * 存在事务时在事务结束后再次使缓存失效，丢弃事务提交前缓存的查询结果。
+	 * 
+	 * @param sessionFactory
+	 *            SessionFactory
+	 * @param persister
+	 *            实体持久化器
+	 */
+	public static void invalidate(SessionFactory sessionFactory,
+			final EntityPersister persister) {
+		EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		for (Object listener : registry.getEventListenerGroup(
+				EventType.POST_COMMIT_INSERT).listeners()) {
+			if (listener instanceof DaoQueryCacheInvalidator) {
+				final DaoQueryCacheInvalidator invalidator = (DaoQueryCacheInvalidator) listener;
+				invalidator.invalidate(persister);
+				if (TransactionSynchronizationManager.isSynchronizationActive()) {
+					TransactionSynchronizationManager
+							.registerSynchronization(new TransactionSynchronizationAdapter() {
+								@Override
+								public void afterCompletion(int status) {
+									invalidator.invalidate(persister);
+								}
+							});
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		invalidate(event.getPersister());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		invalidate(event.getPersister());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		invalidate(event.getPersister());
+	}
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		Class<?> entityClass = persister.getMappedClass();
+		for (DaoQueryCache cache : caches) {
+			if (cache.getEntityClass().isAssignableFrom(entityClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 使实体类型对应的查询结果缓存失效。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 */
+	private void invalidate(EntityPersister persister) {
+		Class<?> entityClass = persister.getMappedClass();
+		for (DaoQueryCache cache : caches) {
+			if (cache.getEntityClass().isAssignableFrom(entityClass)) {
+				cache.invalidate();
+			}
+		}
+	}
+}
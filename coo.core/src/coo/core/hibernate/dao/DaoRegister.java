@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.stereotype.Component;
 
@@ -14,7 +15,7 @@ import coo.core.hibernate.EntityClassBeanFactoryPostProcessor;
 /**
  * 该类定义了一个Dao注册器组件。它实现了BeanFactoryPostProcessor接口，
  * 在Spring容器初始化完成后自动根据sessionFactory的packagesToScan指定的路径查找业务实体类
- * ，并为这些业务实体类注册相应的泛型Dao组件。这样就省去了在配置文件中逐个为业务实体声明对应的Dao组件。
+ * ，并为这些业务实体类注册相应的泛型Dao组件（xxxDao）和异步泛型Dao组件（xxxAsyncDao）。这样就省去了在配置文件中逐个为业务实体声明对应的Dao组件。
  */
 @Component
 public class DaoRegister extends EntityClassBeanFactoryPostProcessor {
@@ -36,10 +37,21 @@ public class DaoRegister extends EntityClassBeanFactoryPostProcessor {
 				String beanName = entityClass.getSimpleName();
 				char[] chars = beanName.toCharArray();
 				chars[0] = Character.toLowerCase(chars[0]);
-				beanName = new String(chars) + "Dao";
+				beanName = new String(chars);
 				((DefaultListableBeanFactory) beanFactory)
-						.registerBeanDefinition(beanName, daoDefinition);
-				log.debug("自动注入DAO组件[{}]", beanName);
+						.registerBeanDefinition(beanName + "Dao", daoDefinition);
+				log.debug("自动注入DAO组件[{}]", beanName + "Dao");
+
+				AnnotatedGenericBeanDefinition asyncDaoDefinition = new AnnotatedGenericBeanDefinition(
+						AsyncDao.class);
+				ConstructorArgumentValues asyncAv = new ConstructorArgumentValues();
+				asyncAv.addGenericArgumentValue(new RuntimeBeanReference(
+						beanName + "Dao"));
+				asyncDaoDefinition.setConstructorArgumentValues(asyncAv);
+				((DefaultListableBeanFactory) beanFactory)
+						.registerBeanDefinition(beanName + "AsyncDao",
+								asyncDaoDefinition);
+				log.debug("自动注入异步DAO组件[{}]", beanName + "AsyncDao");
 			}
 		}
 	}
@@ -1,5 +1,8 @@
 package coo.core.hibernate.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Lazy;
@@ -28,6 +31,22 @@ public class DaoUtils implements ApplicationContextAware {
 		return getDao(entityClass).get(id);
 	}
 
+	/**
+	 * 根据ID集合批量获取实体对象。
+	 * 
+	 * @param <T>
+	 *            实体类型
+	 * @param entityClass
+	 *            实体类
+	 * @param ids
+	 *            实体ID集合
+	 * @return 返回按ID集合顺序排列的实体对象列表。
+	 */
+	public static <T> List<T> getEntities(Class<T> entityClass,
+			Collection<String> ids) {
+		return getDao(entityClass).getAll(ids);
+	}
+
 	/**
 	 * 获取指定实体类的Dao组件。
 	 * 
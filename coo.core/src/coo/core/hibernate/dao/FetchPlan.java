@@ -0,0 +1,23 @@
+package coo.core.hibernate.dao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 抓取计划注解。<br/>
+ * 标注在业务实体类上，为Dao的get、findBy、findPage、searchPage等方法声明一组需要一并加载的关联属性路径，如“actors.role”。<br/>
+ * 一个实体类需要声明多个抓取计划时使用FetchPlans注解。
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FetchPlan {
+	/** 抓取计划名称 */
+	String name();
+
+	/** 关联属性路径 */
+	String[] paths();
+}
@@ -0,0 +1,18 @@
+package coo.core.hibernate.dao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 多个抓取计划注解。
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FetchPlans {
+	/** 抓取计划 */
+	FetchPlan[] value();
+}
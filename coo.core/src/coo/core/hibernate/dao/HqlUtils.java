@@ -0,0 +1,237 @@
+package coo.core.hibernate.dao;
+
+import coo.base.util.StringUtils;
+
+/**
+ * HQL语句工具类。<br/>
+ * 只处理最外层（不在括号和字符串常量中）的子句，子查询中的子句不受影响。
+ */
+public abstract class HqlUtils {
+	/** 不能作为别名的关键字 */
+	private static final String[] ALIAS_STOP_WORDS = { "where", "order",
+			"group", "having", "left", "right", "inner", "outer", "full",
+			"cross", "join" };
+
+	/**
+	 * 在HQL语句的最外层where子句中追加查询条件。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @param condition
+	 *            查询条件
+	 * @return 返回追加查询条件后的HQL语句。
+	 */
+	public static String addCondition(String hql, String condition) {
+		int whereIndex = indexOf(hql, "where");
+		int endIndex = getWhereEndIndex(hql);
+		if (whereIndex < 0) {
+			return (hql.substring(0, endIndex).trim() + " where " + condition
+					+ " " + hql.substring(endIndex).trim()).trim();
+		}
+		String where = hql.substring(whereIndex + "where".length(), endIndex)
+				.trim();
+		return (hql.substring(0, whereIndex) + "where (" + where + ") and "
+				+ condition + " " + hql.substring(endIndex).trim()).trim();
+	}
+
+	/**
+	 * 在HQL语句最外层from子句的末尾追加连接。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @param join
+	 *            连接语句，如“left join u.creator c”
+	 * @return 返回追加连接后的HQL语句。
+	 */
+	public static String addJoin(String hql, String join) {
+		int endIndex = indexOf(hql, "where");
+		if (endIndex < 0) {
+			endIndex = getWhereEndIndex(hql);
+		}
+		return (hql.substring(0, endIndex).trim() + " " + join + " " + hql
+				.substring(endIndex).trim()).trim();
+	}
+
+	/**
+	 * 替换HQL语句最外层的select子句，原语句没有select子句时直接添加。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @param select
+	 *            select子句
+	 * @return 返回替换select子句后的HQL语句。
+	 */
+	public static String replaceSelect(String hql, String select) {
+		return select + " " + hql.substring(indexOf(hql, "from")).trim();
+	}
+
+	/**
+	 * 移除HQL语句最外层的fetch关键字（包括“fetch all properties”），连接本身保留。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @return 返回移除fetch关键字后的HQL语句。
+	 */
+	public static String removeFetch(String hql) {
+		String result = hql;
+		int fetchIndex;
+		while ((fetchIndex = indexOf(result, "fetch")) >= 0) {
+			result = result.substring(0, fetchIndex)
+					+ result.substring(fetchIndex + "fetch".length())
+							.replaceFirst("^(?i)\\s*(all\\s+properties\\b)?\\s*",
+									"");
+		}
+		return result.trim();
+	}
+
+	/**
+	 * 判断HQL语句最外层的select子句是否使用了distinct。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @return 返回select子句是否使用了distinct。
+	 */
+	public static Boolean isDistinct(String hql) {
+		int selectIndex = indexOf(hql, "select");
+		if (selectIndex < 0) {
+			return false;
+		}
+		String select = hql.substring(selectIndex + "select".length()).trim();
+		return matches(select, 0, "distinct");
+	}
+
+	/**
+	 * 获取HQL语句最外层from子句中第一个实体的别名。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @return 返回第一个实体的别名，没有指定别名时返回null。
+	 */
+	public static String getRootAlias(String hql) {
+		String[] words = hql.substring(indexOf(hql, "from")).trim()
+				.split("\\s+", 5);
+		if (words.length < 3 || words[1].endsWith(",")) {
+			return null;
+		}
+		String alias = words[2];
+		if ("as".equalsIgnoreCase(alias) && words.length > 3) {
+			alias = words[3];
+		}
+		alias = StringUtils.substringBefore(alias, ",");
+		if (alias.isEmpty()) {
+			return null;
+		}
+		for (String keyword : ALIAS_STOP_WORDS) {
+			if (keyword.equalsIgnoreCase(alias)) {
+				return null;
+			}
+		}
+		return alias;
+	}
+
+	/**
+	 * 移除HQL语句最外层的order by子句。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @return 返回移除order by子句后的HQL语句。
+	 */
+	public static String removeOrderBy(String hql) {
+		int orderByIndex = indexOf(hql, "order by");
+		if (orderByIndex < 0) {
+			return hql.trim();
+		}
+		return hql.substring(0, orderByIndex).trim();
+	}
+
+	/**
+	 * 获取关键字在HQL语句最外层第一次出现的位置，关键字中的空格可以匹配任意多个空白字符，不区分大小写。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @param keyword
+	 *            关键字
+	 * @return 返回关键字第一次出现的位置，如果没有找到返回-1。
+	 */
+	public static int indexOf(String hql, String keyword) {
+		int depth = 0;
+		boolean quoted = false;
+		for (int i = 0; i < hql.length(); i++) {
+			char c = hql.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if (!quoted && c == '(') {
+				depth++;
+			} else if (!quoted && c == ')') {
+				depth--;
+			} else if (!quoted && depth == 0 && matches(hql, i, keyword)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 获取where子句的结束位置，即group by、having、order by子句的起始位置或语句的结束位置。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @return 返回where子句的结束位置。
+	 */
+	private static int getWhereEndIndex(String hql) {
+		int endIndex = hql.length();
+		for (String keyword : new String[] { "group by", "having", "order by" }) {
+			int index = indexOf(hql, keyword);
+			if (index >= 0 && index < endIndex) {
+				endIndex = index;
+			}
+		}
+		return endIndex;
+	}
+
+	/**
+	 * 判断HQL语句的指定位置是否是一个完整的关键字。
+	 * 
+	 * @param hql
+	 *            HQL语句
+	 * @param start
+	 *            起始位置
+	 * @param keyword
+	 *            关键字
+	 * @return 返回指定位置是否是一个完整的关键字。
+	 */
+	private static boolean matches(String hql, int start, String keyword) {
+		if (start > 0 && isWordChar(hql.charAt(start - 1))) {
+			return false;
+		}
+		int pos = start;
+		for (String word : keyword.split(" ")) {
+			if (pos > start) {
+				int wsStart = pos;
+				while (pos < hql.length()
+						&& Character.isWhitespace(hql.charAt(pos))) {
+					pos++;
+				}
+				if (pos == wsStart) {
+					return false;
+				}
+			}
+			if (!hql.regionMatches(true, pos, word, 0, word.length())) {
+				return false;
+			}
+			pos += word.length();
+		}
+		return pos >= hql.length() || !isWordChar(hql.charAt(pos));
+	}
+
+	/**
+	 * 判断字符是否是标识符的组成字符。
+	 * 
+	 * @param c
+	 *            字符
+	 * @return 返回字符是否是标识符的组成字符。
+	 */
+	private static boolean isWordChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+	}
+}
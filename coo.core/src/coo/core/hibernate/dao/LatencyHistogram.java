@@ -0,0 +1,135 @@
+package coo.core.hibernate.dao;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 耗时直方图。<br/>
+ * 以微秒为单位记录耗时，按2的幂次划分区间，每个区间再等分为16个子区间，任意耗时的相对误差不超过1/16，占用内存固定且与记录次数无关。<br/>
+ * 记录和读取都是无锁的，读取时其它线程可能仍在记录，统计值只保证近似一致。
+ */
+public class LatencyHistogram {
+	/** 子区间位数 */
+	private static final int SUB_BITS = 4;
+	/** 子区间数 */
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	/** 可记录的最大耗时的二进制位数，超过的耗时按最大值记录 */
+	private static final int MAX_BITS = 40;
+	private static final long MAX_VALUE = (1L << (MAX_BITS + 1)) - 1;
+	private AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+	private AtomicLong count = new AtomicLong();
+	private AtomicLong total = new AtomicLong();
+	private AtomicLong max = new AtomicLong();
+
+	/**
+	 * 记录一次耗时。
+	 * 
+	 * @param micros
+	 *            耗时微秒数
+	 */
+	public void record(long micros) {
+		long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * 获取记录次数。
+	 * 
+	 * @return 返回记录次数。
+	 */
+	public Long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * 获取平均耗时。
+	 * 
+	 * @return 返回平均耗时微秒数，没有记录时返回0。
+	 */
+	public Long getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : total.get() / n;
+	}
+
+	/**
+	 * 获取最大耗时。
+	 * 
+	 * @return 返回最大耗时微秒数。
+	 */
+	public Long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * 获取指定百分位的耗时。
+	 * 
+	 * @param percentile
+	 *            百分位，如99.9
+	 * @return 返回不小于指定百分比记录的耗时微秒数（所在子区间的上限），没有记录时返回0。
+	 */
+	public Long getPercentile(double percentile) {
+		long n = count.get();
+		if (n == 0) {
+			return 0L;
+		}
+		long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * 清空记录。
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * 获取耗时所在的子区间序号。
+	 * 
+	 * @param value
+	 *            耗时微秒数
+	 * @return 返回耗时所在的子区间序号。
+	 */
+	private static int indexOf(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	/**
+	 * 获取子区间的上限。
+	 * 
+	 * @param index
+	 *            子区间序号
+	 * @return 返回子区间包含的最大耗时微秒数。
+	 */
+	private static long upperBoundOf(int index) {
+		if (index < SUB_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_COUNT - 1;
+		long lower = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
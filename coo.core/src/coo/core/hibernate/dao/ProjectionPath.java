@@ -0,0 +1,17 @@
+package coo.core.hibernate.dao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * DTO投影属性路径注解。<br/>
+ * 标注在DTO的属性上，指定该属性对应的实体属性路径，如“creator.name”。没有标注时使用DTO的属性名作为实体属性路径。
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ProjectionPath {
+	/** 实体属性路径 */
+	String value();
+}
@@ -0,0 +1,19 @@
+package coo.core.hibernate.dao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 查询结果缓存注解。<br/>
+ * 标注在业务实体类上，启用该实体Dao的findBy、findUnique、getAll查询结果缓存，该实体类型的数据提交变更后缓存自动失效。
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface QueryCacheable {
+	/** 最大缓存查询数 */
+	int maxSize() default 1000;
+}
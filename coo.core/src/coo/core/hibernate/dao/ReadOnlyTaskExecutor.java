@@ -0,0 +1,149 @@
+package coo.core.hibernate.dao;
+
+import java.util.concurrent.Callable;
+
+import javax.annotation.Resource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import coo.base.exception.UncheckedException;
+import coo.core.datasource.ReplicaContext;
+
+/**
+ * 只读查询任务执行组件。<br/>
+ * 在独立的有界线程池中执行查询任务，每个任务在新的只读事务（及其绑定的Session）中执行，任务中可以直接调用Dao的查询方法。<br/>
+ * 提交任务的线程已路由到主库（执行过写事务）时，任务的只读事务也路由到主库。<br/>
+ * 线程池和队列已满时提交任务将抛出TaskRejectedException。<br/>
+ * 任务中不应再提交任务并等待其结果，否则线程池耗尽时将相互等待。
+ */
+@Component
+public class ReadOnlyTaskExecutor implements InitializingBean, DisposableBean {
+	@Resource
+	private PlatformTransactionManager transactionManager;
+	/** 线程池大小 */
+	@Value("${db.executor.poolSize:10}")
+	private Integer poolSize = 10;
+	/** 等待队列容量 */
+	@Value("${db.executor.queueCapacity:100}")
+	private Integer queueCapacity = 100;
+	/** 当前线程是否正在执行查询任务 */
+	private final ThreadLocal<Boolean> executing = new ThreadLocal<Boolean>();
+	private ThreadPoolTaskExecutor executor;
+	private TransactionTemplate transactionTemplate;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("dao-executor-");
+		executor.initialize();
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate
+				.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transactionTemplate.setReadOnly(true);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		executor.shutdown();
+	}
+
+	/**
+	 * 提交查询任务。
+	 * 
+	 * @param <V>
+	 *            查询结果类型
+	 * @param task
+	 *            查询任务
+	 * @return 返回查询结果的Future对象。
+	 */
+	public <V> ListenableFuture<V> submit(final Callable<V> task) {
+		// 提交任务的线程已路由到主库时任务也路由到主库，避免读库延迟导致查询结果与提交线程不一致
+		final Boolean primarySticky = ReplicaContext.isPrimarySticky();
+		return executor.submitListenable(new Callable<V>() {
+			@Override
+			public V call() throws Exception {
+				executing.set(true);
+				if (primarySticky) {
+					ReplicaContext.stickToPrimary();
+				}
+				try {
+					return execute(task);
+				} finally {
+					executing.remove();
+					ReplicaContext.clear();
+				}
+			}
+		});
+	}
+
+	/**
+	 * 判断当前线程是否正在执行查询任务。
+	 * 
+	 * @return 返回当前线程是否正在执行查询任务。
+	 */
+	public Boolean isExecuting() {
+		return executing.get() != null;
+	}
+
+	/**
+	 * 在新的只读事务中执行查询任务。
+	 * 
+	 * @param <V>
+	 *            查询结果类型
+	 * @param task
+	 *            查询任务
+	 * @return 返回查询结果。
+	 */
+	private <V> V execute(final Callable<V> task) {
+		return transactionTemplate.execute(new TransactionCallback<V>() {
+			@Override
+			public V doInTransaction(TransactionStatus status) {
+				try {
+					return task.call();
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new UncheckedException("执行只读查询任务时发生异常。", e);
+				}
+			}
+		});
+	}
+
+	public PlatformTransactionManager getTransactionManager() {
+		return transactionManager;
+	}
+
+	public void setTransactionManager(
+			PlatformTransactionManager transactionManager) {
+		this.transactionManager = transactionManager;
+	}
+
+	public Integer getPoolSize() {
+		return poolSize;
+	}
+
+	public void setPoolSize(Integer poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public Integer getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(Integer queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+}
@@ -0,0 +1,17 @@
+package coo.core.hibernate.dao;
+
+/**
+ * 逐条遍历查询结果的回调接口。
+ * 
+ * @param <T>
+ *            业务实体类型
+ */
+public interface ScrollCallback<T> {
+	/**
+	 * 处理一条查询结果。
+	 * 
+	 * @param entity
+	 *            业务实体
+	 */
+	void process(T entity);
+}
@@ -0,0 +1,39 @@
+package coo.core.hibernate.dao;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.transform.ResultTransformer;
+
+/**
+ * 去除查询结果最后一列后再交由指定结果转换器处理的结果转换器。<br/>
+ * 用于在查询中附加只用于去重、不需要返回的列（如查询实体ID）。
+ */
+class TrailingColumnRemover implements ResultTransformer {
+	private static final long serialVersionUID = -2736170457329568313L;
+	/** 处理去除最后一列后的查询结果的结果转换器 */
+	private ResultTransformer transformer;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param transformer
+	 *            处理去除最后一列后的查询结果的结果转换器
+	 */
+	TrailingColumnRemover(ResultTransformer transformer) {
+		this.transformer = transformer;
+	}
+
+	@Override
+	public Object transformTuple(Object[] tuple, String[] aliases) {
+		return transformer.transformTuple(
+				Arrays.copyOf(tuple, tuple.length - 1),
+				Arrays.copyOf(aliases, aliases.length - 1));
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public List transformList(List collection) {
+		return transformer.transformList(collection);
+	}
+}
@@ -0,0 +1,119 @@
+package coo.core.hibernate.detector;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+
+/**
+ * 延迟加载关联监听器。<br/>
+ * 成对注册在Hibernate默认监听器的前后，前置监听器在延迟加载集合或代理对象前记录正在加载的关联，后置监听器在加载完成后清除记录，
+ * 使加载过程中执行的SQL语句能够对应到引起它的关联。<br/>
+ * Hibernate不允许同一事件注册同一个类的多个监听器，因此前置和后置监听器分别使用不同的子类。
+ */
+public abstract class AssociationLoadListener implements LoadEventListener,
+		InitializeCollectionEventListener {
+	private static final long serialVersionUID = 2617953180571328814L;
+	private NPlusOneDetector detector;
+	/** 是否是前置监听器 */
+	private boolean before;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param detector
+	 *            N+1查询检测器
+	 * @param before
+	 *            是否是前置监听器
+	 */
+	private AssociationLoadListener(NPlusOneDetector detector, boolean before) {
+		this.detector = detector;
+		this.before = before;
+	}
+
+	/**
+	 * 创建前置监听器。
+	 * 
+	 * @param detector
+	 *            N+1查询检测器
+	 * @return 返回前置监听器。
+	 */
+	public static AssociationLoadListener before(NPlusOneDetector detector) {
+		return new Before(detector);
+	}
+
+	/**
+	 * 创建后置监听器。
+	 * 
+	 * @param detector
+	 *            N+1查询检测器
+	 * @return 返回后置监听器。
+	 */
+	public static AssociationLoadListener after(NPlusOneDetector detector) {
+		return new After(detector);
+	}
+
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event)
+			throws HibernateException {
+		// 集合声明在父类时角色名以父类实体名称开头，因此只取角色名最后一段的属性名
+		String role = event.getCollection().getRole();
+		mark(getSimpleName(event.getAffectedOwnerEntityName())
+				+ role.substring(role.lastIndexOf('.')));
+	}
+
+	@Override
+	public void onLoad(LoadEvent event, LoadType loadType)
+			throws HibernateException {
+		if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+			mark(getSimpleName(event.getEntityClassName()) + "（代理）");
+		}
+	}
+
+	/**
+	 * 获取不含包名的实体名称。
+	 * 
+	 * @param entityName
+	 *            实体名称
+	 * @return 返回不含包名的实体名称。
+	 */
+	private String getSimpleName(String entityName) {
+		return entityName.substring(entityName.lastIndexOf('.') + 1);
+	}
+
+	/**
+	 * 记录或清除正在加载的关联。
+	 * 
+	 * @param association
+	 *            关联名称
+	 */
+	private void mark(String association) {
+		StatementContext context = detector.getContext();
+		if (context != null) {
+			context.setPendingAssociation(before ? association : null);
+		}
+	}
+
+	/**
+	 * 前置监听器。
+	 */
+	private static class Before extends AssociationLoadListener {
+		private static final long serialVersionUID = -1387036545203521937L;
+
+		public Before(NPlusOneDetector detector) {
+			super(detector, true);
+		}
+	}
+
+	/**
+	 * 后置监听器。
+	 */
+	private static class After extends AssociationLoadListener {
+		private static final long serialVersionUID = 7790528063357196414L;
+
+		public After(NPlusOneDetector detector) {
+			super(detector, false);
+		}
+	}
+}
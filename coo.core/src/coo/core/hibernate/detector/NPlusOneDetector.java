@@ -0,0 +1,208 @@
+package coo.core.hibernate.detector;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import coo.base.exception.UncheckedException;
+
+/**
+ * N+1查询检测器。<br/>
+ * 作为SessionFactory的实体拦截器统计每个请求或事务中执行的SQL语句，相同结构的查询语句执行次数达到阈值或SQL语句总数达到阈值时，
+ * 输出引起该语句的延迟加载关联和调用位置，并可配置为直接抛出异常使测试失败。<br/>
+ * 已通过StatementContext.begin开始统计时（如请求拦截器或测试代码）在其范围内统计，否则在当前事务范围内统计。
+ */
+public class NPlusOneDetector extends EmptyInterceptor implements
+		ApplicationListener<ContextRefreshedEvent> {
+	private static final long serialVersionUID = -5283641057732914606L;
+	/** 查找调用位置时跳过的类名前缀 */
+	private static final String[] FRAMEWORK_PREFIXES = { "java.", "javax.",
+			"sun.", "com.sun.", "javassist.", "org.hibernate.",
+			"org.springframework.", "org.aspectj.", "com.alibaba.druid.",
+			"freemarker.", "coo.core.hibernate." };
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** 是否启用检测 */
+	private Boolean enabled = false;
+	/** 相同结构SQL语句的执行次数阈值 */
+	private Integer repeatThreshold = 10;
+	/** SQL语句总数阈值，为0时不检测 */
+	private Integer statementThreshold = 0;
+	/** 达到阈值时是否抛出异常 */
+	private Boolean failOnViolation = false;
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (enabled) {
+			register(event.getApplicationContext().getBean(
+					SessionFactory.class));
+		}
+	}
+
+	/**
+	 * 在SessionFactory中注册延迟加载关联监听器，同一个SessionFactory只注册一次。
+	 * 
+	 * @param sessionFactory
+	 *            SessionFactory
+	 */
+	public synchronized void register(SessionFactory sessionFactory) {
+		EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		for (Object listener : registry.getEventListenerGroup(EventType.LOAD)
+				.listeners()) {
+			if (listener instanceof AssociationLoadListener) {
+				return;
+			}
+		}
+		AssociationLoadListener before = AssociationLoadListener.before(this);
+		AssociationLoadListener after = AssociationLoadListener.after(this);
+		registry.prependListeners(EventType.LOAD, before);
+		registry.appendListeners(EventType.LOAD, after);
+		registry.prependListeners(EventType.INIT_COLLECTION, before);
+		registry.appendListeners(EventType.INIT_COLLECTION, after);
+	}
+
+	@Override
+	public String onPrepareStatement(String sql) {
+		if (!enabled) {
+			return sql;
+		}
+		StatementContext context = getContext();
+		if (context == null) {
+			return sql;
+		}
+		int count = context.record(sql);
+		if (count == repeatThreshold && isSelect(sql)) {
+			String association = context.getAssociation(sql);
+			violate(context, "相同结构的SQL语句已执行" + count + "次，延迟加载关联["
+					+ (association == null ? "无" : association) + "]，调用位置["
+					+ getCallSite() + "]：" + sql);
+		}
+		if (context.getStatementCount().equals(statementThreshold)) {
+			violate(context, "SQL语句已执行" + statementThreshold + "次，调用位置["
+					+ getCallSite() + "]。");
+		}
+		return sql;
+	}
+
+	/**
+	 * 获取当前线程的SQL语句统计上下文。没有开始统计但存在事务时，开始统计并在事务结束时结束统计。
+	 * 
+	 * @return 返回当前线程的SQL语句统计上下文，未启用检测或不在统计范围内时返回null。
+	 */
+	public StatementContext getContext() {
+		if (!enabled) {
+			return null;
+		}
+		StatementContext context = StatementContext.get();
+		if (context == null
+				&& TransactionSynchronizationManager.isSynchronizationActive()) {
+			context = StatementContext.begin();
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+						@Override
+						public void afterCompletion(int status) {
+							StatementContext.end();
+						}
+					});
+		}
+		return context;
+	}
+
+	/**
+	 * 记录违规，并根据设置输出警告日志或抛出异常。
+	 * 
+	 * @param context
+	 *            SQL语句统计上下文
+	 * @param violation
+	 *            违规描述
+	 */
+	private void violate(StatementContext context, String violation) {
+		context.addViolation(violation);
+		if (failOnViolation) {
+			throw new UncheckedException("检测到N+1查询：" + violation);
+		}
+		log.warn("检测到N+1查询：{}", violation);
+	}
+
+	/**
+	 * 判断SQL语句是否是查询语句。批量写入时相同结构的insert、update语句重复执行是正常的，不作为N+1查询。
+	 * 
+	 * @param sql
+	 *            SQL语句
+	 * @return 返回SQL语句是否是查询语句。
+	 */
+	private boolean isSelect(String sql) {
+		return sql.trim().regionMatches(true, 0, "select", 0, "select".length());
+	}
+
+	/**
+	 * 获取执行SQL语句的业务代码调用位置，即调用栈中第一个不属于框架的方法。
+	 * 
+	 * @return 返回调用位置。
+	 */
+	private String getCallSite() {
+		for (StackTraceElement element : new Throwable().getStackTrace()) {
+			String className = element.getClassName();
+			if (!isFrameworkClass(className) && !className.contains("$$")) {
+				return element.toString();
+			}
+		}
+		return "未知";
+	}
+
+	/**
+	 * 判断类是否属于框架。
+	 * 
+	 * @param className
+	 *            类名
+	 * @return 返回类是否属于框架。
+	 */
+	private boolean isFrameworkClass(String className) {
+		for (String prefix : FRAMEWORK_PREFIXES) {
+			if (className.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Integer getRepeatThreshold() {
+		return repeatThreshold;
+	}
+
+	public void setRepeatThreshold(Integer repeatThreshold) {
+		this.repeatThreshold = repeatThreshold;
+	}
+
+	public Integer getStatementThreshold() {
+		return statementThreshold;
+	}
+
+	public void setStatementThreshold(Integer statementThreshold) {
+		this.statementThreshold = statementThreshold;
+	}
+
+	public Boolean getFailOnViolation() {
+		return failOnViolation;
+	}
+
+	public void setFailOnViolation(Boolean failOnViolation) {
+		this.failOnViolation = failOnViolation;
+	}
+}
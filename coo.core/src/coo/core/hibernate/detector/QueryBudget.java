@@ -0,0 +1,188 @@
+package coo.core.hibernate.detector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import coo.base.exception.BusinessException;
+
+/**
+ * 查询预算。<br/>
+ * 限制当前线程在一个范围（请求、事务或一次Dao调用）内执行的SQL语句数、读取的记录行数和耗时，由QueryBudgetFilter在JDBC层统计并检查。<br/>
+ * begin和end方法必须成对调用，嵌套开始的预算同时受外层预算的限制。限制值为null或0时不限制，通过begin(String)开始的预算使用QueryBudgetFilter的默认限制。
+ */
+public class QueryBudget {
+	private static final ThreadLocal<List<QueryBudget>> BUDGETS = new ThreadLocal<List<QueryBudget>>();
+	/** 预算名称，用于输出日志 */
+	private String name;
+	/** 是否使用默认限制 */
+	private boolean defaults;
+	/** 最大SQL语句数 */
+	private Integer maxStatements;
+	/** 最大记录行数 */
+	private Integer maxRows;
+	/** 最大耗时毫秒数 */
+	private Integer maxMillis;
+	/** 开始时间 */
+	private long startTime = System.currentTimeMillis();
+	/** SQL语句数 */
+	private int statementCount;
+	/** 记录行数 */
+	private long rowCount;
+	/** 是否已超出预算 */
+	private boolean exceeded;
+
+	/**
+	 * 开始使用默认限制的查询预算。
+	 * 
+	 * @param name
+	 *            预算名称
+	 * @return 返回开始的查询预算。
+	 */
+	public static QueryBudget begin(String name) {
+		QueryBudget budget = begin(name, null, null, null);
+		budget.defaults = true;
+		return budget;
+	}
+
+	/**
+	 * 开始查询预算。
+	 * 
+	 * @param name
+	 *            预算名称
+	 * @param maxStatements
+	 *            最大SQL语句数
+	 * @param maxRows
+	 *            最大记录行数
+	 * @param maxMillis
+	 *            最大耗时毫秒数
+	 * @return 返回开始的查询预算。
+	 */
+	public static QueryBudget begin(String name, Integer maxStatements,
+			Integer maxRows, Integer maxMillis) {
+		List<QueryBudget> budgets = BUDGETS.get();
+		if (budgets == null) {
+			budgets = new ArrayList<QueryBudget>();
+			BUDGETS.set(budgets);
+		}
+		QueryBudget budget = new QueryBudget();
+		budget.name = name;
+		budget.maxStatements = maxStatements;
+		budget.maxRows = maxRows;
+		budget.maxMillis = maxMillis;
+		budgets.add(budget);
+		return budget;
+	}
+
+	/**
+	 * 结束最近开始的查询预算。
+	 * 
+	 * @return 返回结束的查询预算，没有开始查询预算时返回null。
+	 */
+	public static QueryBudget end() {
+		List<QueryBudget> budgets = BUDGETS.get();
+		if (budgets == null) {
+			return null;
+		}
+		QueryBudget budget = budgets.remove(budgets.size() - 1);
+		if (budgets.isEmpty()) {
+			BUDGETS.remove();
+		}
+		return budget;
+	}
+
+	/**
+	 * 从异常的原因链中取出超出查询预算的BusinessException。
+	 * 
+	 * @param exception
+	 *            异常
+	 * @return 返回原因链中的BusinessException，没有时返回异常本身。
+	 */
+	public static RuntimeException unwrap(RuntimeException exception) {
+		Throwable cause = exception;
+		while (cause != null) {
+			if (cause instanceof BusinessException) {
+				return (BusinessException) cause;
+			}
+			cause = cause.getCause();
+		}
+		return exception;
+	}
+
+	/**
+	 * 获取当前线程由外到内的所有查询预算。
+	 * 
+	 * @return 返回当前线程的所有查询预算，没有开始查询预算时返回null。
+	 */
+	static List<QueryBudget> getBudgets() {
+		return BUDGETS.get();
+	}
+
+	/**
+	 * 获取已耗费的毫秒数。
+	 * 
+	 * @return 返回已耗费的毫秒数。
+	 */
+	public Long getElapsedMillis() {
+		return System.currentTimeMillis() - startTime;
+	}
+
+	@Override
+	public String toString() {
+		return name + "（SQL语句" + statementCount + "条，记录" + rowCount + "行，耗时"
+				+ getElapsedMillis() + "毫秒）";
+	}
+
+	/**
+	 * 增加一条SQL语句。
+	 * 
+	 * @return 返回累计的SQL语句数。
+	 */
+	int addStatement() {
+		return ++statementCount;
+	}
+
+	/**
+	 * 增加一行记录。
+	 * 
+	 * @return 返回累计的记录行数。
+	 */
+	long addRow() {
+		return ++rowCount;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isDefaults() {
+		return defaults;
+	}
+
+	public Integer getMaxStatements() {
+		return maxStatements;
+	}
+
+	public Integer getMaxRows() {
+		return maxRows;
+	}
+
+	public Integer getMaxMillis() {
+		return maxMillis;
+	}
+
+	public Integer getStatementCount() {
+		return statementCount;
+	}
+
+	public Long getRowCount() {
+		return rowCount;
+	}
+
+	public boolean isExceeded() {
+		return exceeded;
+	}
+
+	void setExceeded(boolean exceeded) {
+		this.exceeded = exceeded;
+	}
+}
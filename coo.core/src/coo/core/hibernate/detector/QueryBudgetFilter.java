@@ -0,0 +1,273 @@
+package coo.core.hibernate.detector;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.alibaba.druid.filter.FilterChain;
+import com.alibaba.druid.filter.FilterEventAdapter;
+import com.alibaba.druid.proxy.jdbc.CallableStatementProxy;
+import com.alibaba.druid.proxy.jdbc.PreparedStatementProxy;
+import com.alibaba.druid.proxy.jdbc.ResultSetProxy;
+import com.alibaba.druid.proxy.jdbc.StatementProxy;
+
+import coo.base.exception.BusinessException;
+
+/**
+ * 查询预算过滤器。<br/>
+ * 作为Druid数据源的过滤器，在执行SQL语句和读取记录时累加当前线程所有查询预算的SQL语句数和记录行数，超出任一查询预算的限制时输出警告日志，
+ * 或配置为抛出BusinessException中止查询。中止模式下还会按剩余耗时设置语句的查询超时时间，使数据库主动取消执行时间过长的语句。<br/>
+ * 创建语句时超出预算直接抛出BusinessException；读取记录时超出预算抛出的BusinessException会被Druid包装为SQLException，可以通过QueryBudget.unwrap方法取出。<br/>
+ * 当前线程没有开始查询预算且存在事务时，按默认限制开始一个事务范围的查询预算。<br/>
+ * 查询预算按线程统计，Dao在ReadOnlyTaskExecutor线程中并行统计总记录数时执行的语句不计入调用线程的查询预算。
+ */
+public class QueryBudgetFilter extends FilterEventAdapter {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** 是否启用查询预算 */
+	private Boolean enabled = false;
+	/** 默认最大SQL语句数，为0时不限制 */
+	private Integer maxStatements = 0;
+	/** 默认最大记录行数，为0时不限制 */
+	private Integer maxRows = 0;
+	/** 默认最大耗时毫秒数，为0时不限制 */
+	private Integer maxMillis = 0;
+	/** 超出预算时是否抛出异常中止查询 */
+	private Boolean abortOnExceeded = false;
+
+	@Override
+	protected void statementCreateAfter(StatementProxy statement) {
+		afterPrepare(statement);
+	}
+
+	@Override
+	protected void statementPrepareAfter(PreparedStatementProxy statement) {
+		afterPrepare(statement);
+	}
+
+	@Override
+	protected void statementPrepareCallAfter(CallableStatementProxy statement) {
+		afterPrepare(statement);
+	}
+
+	@Override
+	protected void statementExecuteBefore(StatementProxy statement, String sql) {
+		beforeExecute(statement);
+	}
+
+	@Override
+	protected void statementExecuteQueryBefore(StatementProxy statement,
+			String sql) {
+		beforeExecute(statement);
+	}
+
+	@Override
+	protected void statementExecuteUpdateBefore(StatementProxy statement,
+			String sql) {
+		beforeExecute(statement);
+	}
+
+	@Override
+	protected void statementExecuteBatchBefore(StatementProxy statement) {
+		beforeExecute(statement);
+	}
+
+	@Override
+	public boolean resultSet_next(FilterChain chain, ResultSetProxy resultSet)
+			throws SQLException {
+		boolean hasNext = super.resultSet_next(chain, resultSet);
+		List<QueryBudget> budgets = getBudgets();
+		if (hasNext && budgets != null) {
+			for (QueryBudget budget : budgets) {
+				Integer max = getLimit(budget, maxRows, budget.getMaxRows());
+				if (budget.addRow() > max && max > 0) {
+					exceed(budget, "读取的记录行数超出" + max + "行");
+				}
+			}
+		}
+		return hasNext;
+	}
+
+	/**
+	 * 创建SQL语句后累加SQL语句数并检查耗时。<br/>
+	 * Druid连接创建语句时不包装运行时异常，在此处中止查询可以使调用者直接得到BusinessException，中止前关闭已创建的语句。
+	 * 
+	 * @param statement
+	 *            SQL语句
+	 */
+	private void afterPrepare(StatementProxy statement) {
+		List<QueryBudget> budgets = getBudgets();
+		if (budgets == null) {
+			return;
+		}
+		try {
+			for (QueryBudget budget : budgets) {
+				Integer max = getLimit(budget, maxStatements,
+						budget.getMaxStatements());
+				if (budget.addStatement() > max && max > 0) {
+					exceed(budget, "执行的SQL语句数超出" + max + "条");
+				}
+				max = getLimit(budget, maxMillis, budget.getMaxMillis());
+				if (max > 0 && budget.getElapsedMillis() > max) {
+					exceed(budget, "耗时超出" + max + "毫秒");
+				}
+			}
+		} catch (BusinessException e) {
+			try {
+				statement.getRawObject().close();
+			} catch (SQLException ex) {
+				log.warn("关闭SQL语句时发生异常。", ex);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * 执行SQL语句前，中止模式下按查询预算的剩余耗时设置查询超时时间。
+	 * 
+	 * @param statement
+	 *            SQL语句
+	 */
+	private void beforeExecute(StatementProxy statement) {
+		List<QueryBudget> budgets = getBudgets();
+		if (!abortOnExceeded || budgets == null) {
+			return;
+		}
+		long remainingMillis = Long.MAX_VALUE;
+		for (QueryBudget budget : budgets) {
+			Integer max = getLimit(budget, maxMillis, budget.getMaxMillis());
+			if (max > 0) {
+				remainingMillis = Math.min(remainingMillis,
+						max - budget.getElapsedMillis());
+			}
+		}
+		if (remainingMillis != Long.MAX_VALUE) {
+			setQueryTimeout(statement,
+					(int) Math.max(1, (remainingMillis + 999) / 1000));
+		}
+	}
+
+	/**
+	 * 设置SQL语句的查询超时时间，语句已设置了更短的超时时间时不作修改。
+	 * 
+	 * @param statement
+	 *            SQL语句
+	 * @param seconds
+	 *            超时秒数
+	 */
+	private void setQueryTimeout(StatementProxy statement, int seconds) {
+		try {
+			int timeout = statement.getRawObject().getQueryTimeout();
+			if (timeout == 0 || timeout > seconds) {
+				statement.getRawObject().setQueryTimeout(seconds);
+			}
+		} catch (SQLException e) {
+			log.warn("设置SQL语句的查询超时时间时发生异常。", e);
+		}
+	}
+
+	/**
+	 * 超出查询预算时根据设置抛出异常，或在第一次超出时输出警告日志。
+	 * 
+	 * @param budget
+	 *            查询预算
+	 * @param reason
+	 *            超出原因
+	 */
+	private void exceed(QueryBudget budget, String reason) {
+		if (abortOnExceeded) {
+			budget.setExceeded(true);
+			throw new BusinessException("查询超出预算，" + reason + "：" + budget);
+		}
+		if (!budget.isExceeded()) {
+			budget.setExceeded(true);
+			log.warn("查询超出预算，{}：{}", reason, budget);
+		}
+	}
+
+	/**
+	 * 获取当前线程的所有查询预算。没有开始查询预算但存在事务且设置了默认限制时，开始事务范围的查询预算并在事务结束时结束。
+	 * 
+	 * @return 返回当前线程的所有查询预算，未启用查询预算或不在预算范围内时返回null。
+	 */
+	private List<QueryBudget> getBudgets() {
+		if (!enabled) {
+			return null;
+		}
+		List<QueryBudget> budgets = QueryBudget.getBudgets();
+		if (budgets == null
+				&& (maxStatements > 0 || maxRows > 0 || maxMillis > 0)
+				&& TransactionSynchronizationManager.isSynchronizationActive()) {
+			QueryBudget.begin("事务");
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+						@Override
+						public void afterCompletion(int status) {
+							QueryBudget.end();
+						}
+					});
+			budgets = QueryBudget.getBudgets();
+		}
+		return budgets;
+	}
+
+	/**
+	 * 获取查询预算的有效限制值，使用默认限制的查询预算返回默认限制值。
+	 * 
+	 * @param budget
+	 *            查询预算
+	 * @param defaultLimit
+	 *            默认限制值
+	 * @param limit
+	 *            查询预算的限制值
+	 * @return 返回有效限制值，为0时不限制。
+	 */
+	private Integer getLimit(QueryBudget budget, Integer defaultLimit,
+			Integer limit) {
+		Integer result = budget.isDefaults() ? defaultLimit : limit;
+		return result == null ? 0 : result;
+	}
+
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Integer getMaxStatements() {
+		return maxStatements;
+	}
+
+	public void setMaxStatements(Integer maxStatements) {
+		this.maxStatements = maxStatements;
+	}
+
+	public Integer getMaxRows() {
+		return maxRows;
+	}
+
+	public void setMaxRows(Integer maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	public Integer getMaxMillis() {
+		return maxMillis;
+	}
+
+	public void setMaxMillis(Integer maxMillis) {
+		this.maxMillis = maxMillis;
+	}
+
+	public Boolean getAbortOnExceeded() {
+		return abortOnExceeded;
+	}
+
+	public void setAbortOnExceeded(Boolean abortOnExceeded) {
+		this.abortOnExceeded = abortOnExceeded;
+	}
+}
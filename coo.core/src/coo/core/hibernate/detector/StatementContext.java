@@ -0,0 +1,139 @@
+package coo.core.hibernate.detector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL语句统计上下文。<br/>
+ * 记录当前线程在一次请求或事务中执行的SQL语句数、每种相同结构SQL语句的执行次数及其对应的延迟加载关联，供NPlusOneDetector检测N+1查询。<br/>
+ * begin和end方法可以嵌套调用，只有最外层的end方法结束统计。在JUnit测试中可以用begin和end方法包围待测代码，并断言getViolations返回的列表为空。
+ */
+public class StatementContext {
+	private static final ThreadLocal<StatementContext> CONTEXT = new ThreadLocal<StatementContext>();
+	/** 嵌套层数 */
+	private int depth;
+	/** SQL语句数 */
+	private int statementCount;
+	/** 以SQL语句为键的执行统计 */
+	private Map<String, Shape> shapes = new HashMap<String, Shape>();
+	/** 正在加载的关联，下一条SQL语句由该关联的延迟加载引起 */
+	private String pendingAssociation;
+	/** 违规描述 */
+	private List<String> violations = new ArrayList<String>();
+
+	/**
+	 * 开始当前线程的SQL语句统计，已开始时增加嵌套层数。
+	 * 
+	 * @return 返回当前线程的SQL语句统计上下文。
+	 */
+	public static StatementContext begin() {
+		StatementContext context = CONTEXT.get();
+		if (context == null) {
+			context = new StatementContext();
+			CONTEXT.set(context);
+		}
+		context.depth++;
+		return context;
+	}
+
+	/**
+	 * 结束当前线程的SQL语句统计，嵌套调用时只减少嵌套层数。
+	 * 
+	 * @return 返回当前线程的SQL语句统计上下文，没有开始统计时返回null。
+	 */
+	public static StatementContext end() {
+		StatementContext context = CONTEXT.get();
+		if (context != null && --context.depth <= 0) {
+			CONTEXT.remove();
+		}
+		return context;
+	}
+
+	/**
+	 * 获取当前线程的SQL语句统计上下文。
+	 * 
+	 * @return 返回当前线程的SQL语句统计上下文，没有开始统计时返回null。
+	 */
+	public static StatementContext get() {
+		return CONTEXT.get();
+	}
+
+	/**
+	 * 记录一条SQL语句。
+	 * 
+	 * @param sql
+	 *            SQL语句
+	 * @return 返回该SQL语句的累计执行次数。
+	 */
+	int record(String sql) {
+		statementCount++;
+		Shape shape = shapes.get(sql);
+		if (shape == null) {
+			shape = new Shape();
+			shapes.put(sql, shape);
+		}
+		if (shape.association == null) {
+			shape.association = pendingAssociation;
+		}
+		pendingAssociation = null;
+		return ++shape.count;
+	}
+
+	/**
+	 * 获取SQL语句对应的延迟加载关联。
+	 * 
+	 * @param sql
+	 *            SQL语句
+	 * @return 返回SQL语句对应的延迟加载关联，不是由延迟加载引起时返回null。
+	 */
+	public String getAssociation(String sql) {
+		Shape shape = shapes.get(sql);
+		return shape == null ? null : shape.association;
+	}
+
+	/**
+	 * 获取SQL语句的执行次数。
+	 * 
+	 * @param sql
+	 *            SQL语句
+	 * @return 返回SQL语句的执行次数。
+	 */
+	public Integer getRepeatCount(String sql) {
+		Shape shape = shapes.get(sql);
+		return shape == null ? 0 : shape.count;
+	}
+
+	/**
+	 * 添加违规描述。
+	 * 
+	 * @param violation
+	 *            违规描述
+	 */
+	void addViolation(String violation) {
+		violations.add(violation);
+	}
+
+	public Integer getStatementCount() {
+		return statementCount;
+	}
+
+	public List<String> getViolations() {
+		return violations;
+	}
+
+	void setPendingAssociation(String pendingAssociation) {
+		this.pendingAssociation = pendingAssociation;
+	}
+
+	/**
+	 * 相同结构SQL语句的执行统计。
+	 */
+	private class Shape {
+		/** 执行次数 */
+		private int count;
+		/** 对应的延迟加载关联 */
+		private String association;
+	}
+}
@@ -0,0 +1,29 @@
+package coo.core.hibernate.outbox;
+
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内事件接收器。将每个实体变更事件作为OutboxApplicationEvent发布到Spring容器中。
+ */
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink,
+		ApplicationEventPublisherAware {
+	private ApplicationEventPublisher publisher;
+
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher applicationEventPublisher) {
+		this.publisher = applicationEventPublisher;
+	}
+
+	@Override
+	public void publish(List<OutboxEventEntity> events) {
+		for (OutboxEventEntity event : events) {
+			publisher.publishEvent(new OutboxApplicationEvent(event));
+		}
+	}
+}
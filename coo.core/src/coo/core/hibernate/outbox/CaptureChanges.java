@@ -0,0 +1,17 @@
+package coo.core.hibernate.outbox;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 变更事件捕获注解。<br/>
+ * 标注在业务实体类上，启用发件箱后该实体的新增、修改、删除会在同一事务中写入发件箱表，由OutboxRelay分发给下游。
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CaptureChanges {
+}
@@ -0,0 +1,68 @@
+package coo.core.hibernate.outbox;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import coo.base.exception.UncheckedException;
+import coo.core.jackson.GenericObjectMapper;
+
+/**
+ * 文件事件接收器。将实体变更事件以每行一个JSON对象的格式追加到指定文件中，供其它进程读取。<br/>
+ * 需要时在配置文件中声明为组件并设置文件路径。
+ */
+public class FileOutboxSink implements OutboxSink {
+	private ObjectMapper mapper = new GenericObjectMapper();
+	/** 文件路径 */
+	private String file;
+
+	@Override
+	public synchronized void publish(List<OutboxEventEntity> events) {
+		File target = new File(file);
+		if (target.getParentFile() != null) {
+			target.getParentFile().mkdirs();
+		}
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(target, true),
+					"UTF-8");
+			for (OutboxEventEntity event : events) {
+				Map<String, Object> line = new LinkedHashMap<String, Object>();
+				line.put("id", event.getId());
+				line.put("entityName", event.getEntityName());
+				line.put("entityId", event.getEntityId());
+				line.put("operation", event.getOperation());
+				line.put("changedFields", event.getChangedFields());
+				line.put("createDate", event.getCreateDate());
+				writer.write(mapper.writeValueAsString(line));
+				writer.write("\n");
+			}
+		} catch (IOException e) {
+			throw new UncheckedException("写入发件箱事件文件[" + file + "]时发生异常。", e);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					throw new UncheckedException("关闭发件箱事件文件[" + file
+							+ "]时发生异常。", e);
+				}
+			}
+		}
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+}
@@ -0,0 +1,29 @@
+package coo.core.hibernate.outbox;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 实体变更应用事件。由ApplicationEventOutboxSink在实体变更提交后发布，进程内的ApplicationListener可以监听该事件。
+ */
+public class OutboxApplicationEvent extends ApplicationEvent {
+	private static final long serialVersionUID = 4187659237501364270L;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param event
+	 *            实体变更事件
+	 */
+	public OutboxApplicationEvent(OutboxEventEntity event) {
+		super(event);
+	}
+
+	/**
+	 * 获取实体变更事件。
+	 * 
+	 * @return 返回实体变更事件。
+	 */
+	public OutboxEventEntity getEvent() {
+		return (OutboxEventEntity) getSource();
+	}
+}
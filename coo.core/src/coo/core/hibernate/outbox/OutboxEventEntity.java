@@ -0,0 +1,86 @@
+package coo.core.hibernate.outbox;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import coo.core.model.UuidEntity;
+
+/**
+ * 发件箱实体变更事件基类。<br/>
+ * 应用中声明一个继承该类的实体类即启用发件箱表，OutboxEventListener将标注了CaptureChanges注解的实体的变更写入该表。
+ */
+@MappedSuperclass
+public abstract class OutboxEventEntity extends UuidEntity {
+	/** 新增操作 */
+	public static final String INSERT = "INSERT";
+	/** 修改操作 */
+	public static final String UPDATE = "UPDATE";
+	/** 删除操作 */
+	public static final String DELETE = "DELETE";
+	/** 实体名称 */
+	private String entityName;
+	/** 实体ID */
+	private String entityId;
+	/** 操作类型 */
+	private String operation;
+	/** 变更的属性名，多个属性名以逗号分隔 */
+	@Column(length = 2000)
+	private String changedFields;
+	/** 创建时间 */
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date createDate;
+	/** 事件在所属事务中的产生顺序，创建时间相同时按该顺序分发 */
+	private Integer sequenceNo;
+
+	public String getEntityName() {
+		return entityName;
+	}
+
+	public void setEntityName(String entityName) {
+		this.entityName = entityName;
+	}
+
+	public String getEntityId() {
+		return entityId;
+	}
+
+	public void setEntityId(String entityId) {
+		this.entityId = entityId;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public String getChangedFields() {
+		return changedFields;
+	}
+
+	public void setChangedFields(String changedFields) {
+		this.changedFields = changedFields;
+	}
+
+	public Date getCreateDate() {
+		return createDate;
+	}
+
+	public void setCreateDate(Date createDate) {
+		this.createDate = createDate;
+	}
+
+	public Integer getSequenceNo() {
+		return sequenceNo;
+	}
+
+	public void setSequenceNo(Integer sequenceNo) {
+		this.sequenceNo = sequenceNo;
+	}
+}
@@ -0,0 +1,226 @@
+package coo.core.hibernate.outbox;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.ConnectionReleaseMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import coo.base.exception.UncheckedException;
+import coo.base.util.StringUtils;
+
+/**
+ * 发件箱事件监听器。<br/>
+ * 在Session刷新时收集标注了CaptureChanges注解的实体的新增、修改、删除事件，在事务提交前通过共享当前连接的子Session写入发件箱表，
+ * 事件与业务数据在同一事务中提交或回滚。<br/>
+ * Dao的批量删除、批量更新不触发实体事件，通过capture方法补充事件。
+ */
+public class OutboxEventListener implements PostInsertEventListener,
+		PostUpdateEventListener, PostDeleteEventListener {
+	private static final long serialVersionUID = -2309464126871375236L;
+	/** 发件箱实体类 */
+	private Class<? extends OutboxEventEntity> eventClass;
+	/** 以Session为键的待写入事件 */
+	private Map<SessionImplementor, List<OutboxEventEntity>> buffers = new ConcurrentHashMap<SessionImplementor, List<OutboxEventEntity>>();
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param eventClass
+	 *            发件箱实体类
+	 */
+	public OutboxEventListener(Class<? extends OutboxEventEntity> eventClass) {
+		this.eventClass = eventClass;
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (isCaptured(event.getPersister())) {
+			append(event.getSession(), event.getPersister(), event.getId(),
+					OutboxEventEntity.INSERT, null);
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (isCaptured(event.getPersister())) {
+			String[] names = event.getPersister().getPropertyNames();
+			List<String> changedFields = new ArrayList<String>();
+			if (event.getDirtyProperties() == null) {
+				for (String name : names) {
+					changedFields.add(name);
+				}
+			} else {
+				for (int index : event.getDirtyProperties()) {
+					changedFields.add(names[index]);
+				}
+			}
+			append(event.getSession(), event.getPersister(), event.getId(),
+					OutboxEventEntity.UPDATE,
+					StringUtils.join(changedFields, ","));
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (isCaptured(event.getPersister())) {
+			append(event.getSession(), event.getPersister(), event.getId(),
+					OutboxEventEntity.DELETE, null);
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return false;
+	}
+
+	/**
+	 * 为批量操作修改的实体添加事件。<br/>
+	 * 以HQL语句直接修改数据库的批量删除、批量更新不会触发实体的新增、修改、删除事件，由批量操作调用该方法补充事件。
+	 * 没有注册发件箱事件监听器或实体未标注CaptureChanges注解时不做任何处理。
+	 * 
+	 * @param session
+	 *            Session
+	 * @param persister
+	 *            实体持久化器
+	 * @param ids
+	 *            实体ID集合
+	 * @param operation
+	 *            操作类型
+	 * @param changedFields
+	 *            变更的属性名，多个属性名以逗号分隔
+	 */
+	public static void capture(Session session, EntityPersister persister,
+			Collection<? extends Serializable> ids, String operation,
+			String changedFields) {
+		if (ids.isEmpty() || !isCaptured(persister)) {
+			return;
+		}
+		EventListenerRegistry registry = ((SessionFactoryImplementor) session
+				.getSessionFactory()).getServiceRegistry().getService(
+				EventListenerRegistry.class);
+		for (PostDeleteEventListener listener : registry.getEventListenerGroup(
+				EventType.POST_DELETE).listeners()) {
+			if (listener instanceof OutboxEventListener) {
+				for (Serializable id : ids) {
+					((OutboxEventListener) listener).append(
+							(EventSource) session, persister, id, operation,
+							changedFields);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 判断是否捕获实体的变更。
+	 * 
+	 * @param persister
+	 *            实体持久化器
+	 * @return 返回是否捕获实体的变更。
+	 */
+	private static boolean isCaptured(EntityPersister persister) {
+		Class<?> mappedClass = persister.getMappedClass();
+		return mappedClass.isAnnotationPresent(CaptureChanges.class);
+	}
+
+	/**
+	 * 添加待写入的事件，Session第一次产生事件时注册事务提交前写入和事务结束后清理的处理过程。
+	 * 
+	 * @param session
+	 *            Session
+	 * @param persister
+	 *            实体持久化器
+	 * @param id
+	 *            实体ID
+	 * @param operation
+	 *            操作类型
+	 * @param changedFields
+	 *            变更的属性名
+	 */
+	private void append(EventSource session, EntityPersister persister,
+			Serializable id, String operation, String changedFields) {
+		List<OutboxEventEntity> buffer = buffers.get(session);
+		if (buffer == null) {
+			buffer = new ArrayList<OutboxEventEntity>();
+			buffers.put(session, buffer);
+			session.getActionQueue().registerProcess(
+					new BeforeTransactionCompletionProcess() {
+						@Override
+						public void doBeforeTransactionCompletion(
+								SessionImplementor session) {
+							write(session);
+						}
+					});
+			session.getActionQueue().registerProcess(
+					new AfterTransactionCompletionProcess() {
+						@Override
+						public void doAfterTransactionCompletion(
+								boolean success, SessionImplementor session) {
+							buffers.remove(session);
+						}
+					});
+		}
+		OutboxEventEntity event;
+		try {
+			event = eventClass.newInstance();
+		} catch (Exception e) {
+			throw new UncheckedException("创建发件箱实体[" + eventClass.getName()
+					+ "]时发生异常。", e);
+		}
+		event.setEntityName(persister.getEntityName());
+		event.setEntityId(id.toString());
+		event.setOperation(operation);
+		event.setChangedFields(changedFields);
+		event.setCreateDate(new Date());
+		// 创建时间只精确到毫秒，同一毫秒内产生的事件按添加顺序分发
+		event.setSequenceNo(buffer.size());
+		buffer.add(event);
+	}
+
+	/**
+	 * 通过共享当前连接和事务的子Session写入Session产生的事件。
+	 * 
+	 * @param session
+	 *            Session
+	 */
+	private void write(SessionImplementor session) {
+		List<OutboxEventEntity> buffer = buffers.remove(session);
+		if (buffer == null || buffer.isEmpty()) {
+			return;
+		}
+		Session child = ((Session) session).sessionWithOptions().connection()
+				.autoClose(false)
+				.connectionReleaseMode(ConnectionReleaseMode.AFTER_TRANSACTION)
+				.openSession();
+		try {
+			for (OutboxEventEntity event : buffer) {
+				child.save(event);
+			}
+			child.flush();
+		} catch (HibernateException e) {
+			throw new UncheckedException("写入发件箱事件时发生异常。", e);
+		} finally {
+			child.close();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package coo.core.hibernate.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Resource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Order;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.metadata.ClassMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 发件箱事件分发组件。<br/>
+ * 启用发件箱（db.outbox.enabled）且应用中声明了OutboxEventEntity的实体子类时，在Spring容器初始化完成后注册OutboxEventListener，
+ * 并定时按创建时间和事务内的产生顺序分批读取发件箱表中的事件，分发给容器中所有的OutboxSink后删除。<br/>
+ * 分发和删除在同一事务中执行，任一接收器发送失败时该批事件保留到下次重新分发，即事件至少分发一次。
+ */
+@Component
+public class OutboxRelay implements ApplicationListener<ContextRefreshedEvent> {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	@Resource
+	private SessionFactory sessionFactory;
+	@Resource
+	private PlatformTransactionManager transactionManager;
+	/** 是否启用发件箱 */
+	@Value("${db.outbox.enabled:false}")
+	private Boolean enabled = false;
+	/** 每批分发的事件数 */
+	@Value("${db.outbox.batchSize:100}")
+	private Integer batchSize = 100;
+	private Class<? extends OutboxEventEntity> eventClass;
+	private List<OutboxSink> sinks = new ArrayList<OutboxSink>();
+
+	@Override
+	public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+		if (!enabled || eventClass != null) {
+			return;
+		}
+		eventClass = getEventClass();
+		if (eventClass == null) {
+			log.warn("已启用发件箱，但没有找到继承OutboxEventEntity的实体类。");
+			return;
+		}
+		EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		OutboxEventListener listener = new OutboxEventListener(eventClass);
+		registry.appendListeners(EventType.POST_INSERT, listener);
+		registry.appendListeners(EventType.POST_UPDATE, listener);
+		registry.appendListeners(EventType.POST_DELETE, listener);
+		sinks.addAll(event.getApplicationContext()
+				.getBeansOfType(OutboxSink.class).values());
+		log.info("已启用发件箱[{}]，事件接收器：{}", eventClass.getName(), sinks);
+	}
+
+	/**
+	 * 定时分发发件箱中的事件，直到发件箱为空。
+	 */
+	@Scheduled(fixedDelayString = "${db.outbox.relayInterval:1000}")
+	public void relay() {
+		if (eventClass == null) {
+			return;
+		}
+		try {
+			while (relayBatch() >= batchSize) {
+				log.debug("继续分发发件箱中的下一批事件。");
+			}
+		} catch (Exception e) {
+			log.warn("分发发件箱事件时发生异常，稍后重试。", e);
+		}
+	}
+
+	/**
+	 * 分发一批发件箱事件并将其删除。
+	 * 
+	 * @return 返回分发的事件数。
+	 */
+	public Integer relayBatch() {
+		if (eventClass == null) {
+			return 0;
+		}
+		return new TransactionTemplate(transactionManager)
+				.execute(new TransactionCallback<Integer>() {
+					@Override
+					@SuppressWarnings("unchecked")
+					public Integer doInTransaction(TransactionStatus status) {
+						List<OutboxEventEntity> events = sessionFactory
+								.getCurrentSession().createCriteria(eventClass)
+								.addOrder(Order.asc("createDate"))
+								.addOrder(Order.asc("sequenceNo"))
+								.setMaxResults(batchSize).list();
+						if (events.isEmpty()) {
+							return 0;
+						}
+						for (OutboxSink sink : sinks) {
+							sink.publish(events);
+						}
+						List<String> ids = new ArrayList<String>();
+						for (OutboxEventEntity event : events) {
+							ids.add(event.getId());
+						}
+						sessionFactory
+								.getCurrentSession()
+								.createQuery(
+										"delete from " + eventClass.getName()
+												+ " where id in (:ids)")
+								.setParameterList("ids", ids).executeUpdate();
+						return events.size();
+					}
+				});
+	}
+
+	/**
+	 * 获取应用中声明的发件箱实体类。
+	 * 
+	 * @return 返回发件箱实体类，没有声明时返回null。
+	 */
+	@SuppressWarnings("unchecked")
+	private Class<? extends OutboxEventEntity> getEventClass() {
+		for (ClassMetadata metadata : sessionFactory.getAllClassMetadata()
+				.values()) {
+			Class<?> mappedClass = metadata.getMappedClass();
+			if (OutboxEventEntity.class.isAssignableFrom(mappedClass)) {
+				return (Class<? extends OutboxEventEntity>) mappedClass;
+			}
+		}
+		return null;
+	}
+
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Integer getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(Integer batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public void setSinks(List<OutboxSink> sinks) {
+		this.sinks = sinks;
+	}
+}
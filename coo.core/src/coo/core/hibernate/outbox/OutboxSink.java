@@ -0,0 +1,17 @@
+package coo.core.hibernate.outbox;
+
+import java.util.List;
+
+/**
+ * 发件箱事件接收器接口。<br/>
+ * Spring容器中实现该接口的组件都会收到OutboxRelay分发的事件。发送失败时应抛出异常，该批事件将保留在发件箱表中稍后重新分发，因此接收器需要能够处理重复的事件。
+ */
+public interface OutboxSink {
+	/**
+	 * 发送一批实体变更事件。
+	 * 
+	 * @param events
+	 *            按创建时间排序的实体变更事件
+	 */
+	void publish(List<OutboxEventEntity> events);
+}
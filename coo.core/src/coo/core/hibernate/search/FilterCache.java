@@ -0,0 +1,57 @@
+package coo.core.hibernate.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.lucene.search.CachingWrapperFilter;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+
+/**
+ * 全文搜索过滤器缓存。<br/>
+ * 将过滤条件查询包装为缓存过滤器，缓存过滤器以索引段为键缓存匹配的文档集，索引段不变时重复使用，新增的索引段在第一次过滤时计算。<br/>
+ * 过滤器按查询条件以最近最少使用的顺序淘汰，相同的过滤条件（如状态、机构）在多次请求间共享同一个缓存过滤器。<br/>
+ * 只应缓存取值较少且会重复出现的过滤条件，ID、任意日期区间等一次性的过滤条件缓存后不会再被使用，只会挤占其它过滤器的缓存。
+ */
+public abstract class FilterCache {
+	/** 最大缓存过滤器数 */
+	private static final int MAX_SIZE = 1000;
+	private static final Map<Query, Filter> FILTERS = new LinkedHashMap<Query, Filter>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 4312509826346217395L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<Query, Filter> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * 获取过滤条件查询对应的缓存过滤器。
+	 * 
+	 * @param query
+	 *            过滤条件查询
+	 * @return 返回缓存过滤器。
+	 */
+	public static Filter getFilter(Query query) {
+		synchronized (FILTERS) {
+			Filter filter = FILTERS.get(query);
+			if (filter == null) {
+				filter = new CachingWrapperFilter(new QueryWrapperFilter(query));
+				FILTERS.put(query, filter);
+			}
+			return filter;
+		}
+	}
+
+	/**
+	 * 清空缓存的过滤器。
+	 */
+	public static void clear() {
+		synchronized (FILTERS) {
+			FILTERS.clear();
+		}
+	}
+}
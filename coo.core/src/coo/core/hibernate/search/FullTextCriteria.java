@@ -1,5 +1,6 @@
 package coo.core.hibernate.search;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -7,23 +8,39 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.BooleanFilter;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.BytesRef;
 import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
+import org.hibernate.metadata.ClassMetadata;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.SearchFactory;
 import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.FieldBridge;
+import org.hibernate.search.annotations.Parameter;
+import org.hibernate.search.engine.ProjectionConstants;
 import org.hibernate.search.query.DatabaseRetrievalMethod;
 import org.hibernate.search.query.ObjectLookupMethod;
 import org.slf4j.Logger;
@@ -50,6 +67,9 @@ public class FullTextCriteria {
 	/** 附加的Lucene查询条件列表 */
 	private List<AttachLuceneQuery> luceneQueries = new ArrayList<AttachLuceneQuery>();
 	private Filter filter;
+	/** 过滤条件及其过滤结果是否可以在多次搜索间重复使用 */
+	private Map<Query, Boolean> filterQueries = new LinkedHashMap<Query, Boolean>();
+	private QueryOptimizer queryOptimizer;
 	private Criteria criteriaQuery;
 	/** 是否优先从二级缓存中获取数据 */
 	private Boolean lookupCache = true;
@@ -130,7 +150,7 @@ public class FullTextCriteria {
 	}
 
 	/**
-	 * 增加简单的字段过滤条件。
+	 * 增加简单的字段过滤条件，过滤条件不参与评分，过滤结果不缓存。
 	 * 
 	 * @param fieldName
 	 *            字段名
@@ -138,6 +158,32 @@ public class FullTextCriteria {
 	 *            字段值
 	 */
 	public void addFilterField(String fieldName, Object... fieldValues) {
+		addFilterQuery(generateFieldQuery(fieldName, fieldValues), false);
+	}
+
+	/**
+	 * 增加可重复使用的简单字段过滤条件，过滤条件不参与评分并缓存过滤结果。<br/>
+	 * 只适用于取值较少且在多次搜索间重复出现的字段（如状态、机构），ID等取值较多的字段使用addFilterField。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param fieldValues
+	 *            字段值
+	 */
+	public void addReusableFilterField(String fieldName, Object... fieldValues) {
+		addFilterQuery(generateFieldQuery(fieldName, fieldValues), true);
+	}
+
+	/**
+	 * 生成字段值查询，多个字段值之间为或的关系。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param fieldValues
+	 *            字段值
+	 * @return 返回字段值查询。
+	 */
+	private Query generateFieldQuery(String fieldName, Object... fieldValues) {
 		if (fieldValues.length > 1) {
 			BooleanQuery multiFieldQuery = new BooleanQuery();
 			for (Object fieldValue : fieldValues) {
@@ -145,16 +191,13 @@ public class FullTextCriteria {
 						fieldValue.toString()));
 				multiFieldQuery.add(query, Occur.SHOULD);
 			}
-			addLuceneQuery(multiFieldQuery, Occur.MUST);
-		} else {
-			TermQuery query = new TermQuery(new Term(fieldName,
-					fieldValues[0].toString()));
-			addLuceneQuery(query, Occur.MUST);
+			return multiFieldQuery;
 		}
+		return new TermQuery(new Term(fieldName, fieldValues[0].toString()));
 	}
 
 	/**
-	 * 增加区间字段查询条件。
+	 * 增加区间字段过滤条件，过滤条件不参与评分，过滤结果不缓存。
 	 * 
 	 * @param fieldName
 	 *            字段名
@@ -165,9 +208,52 @@ public class FullTextCriteria {
 	 */
 	public void addRangeField(String fieldName, String lowerTerm,
 			String upperTerm) {
+		addRangeField(fieldName, lowerTerm, upperTerm, false);
+	}
+
+	/**
+	 * 增加区间字段过滤条件，过滤条件不参与评分。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param lowerTerm
+	 *            最小值
+	 * @param upperTerm
+	 *            最大值
+	 * @param reusable
+	 *            区间是否会在多次搜索间重复出现，是则缓存过滤结果
+	 */
+	public void addRangeField(String fieldName, String lowerTerm,
+			String upperTerm, Boolean reusable) {
 		TermRangeQuery query = TermRangeQuery.newStringRange(fieldName,
 				lowerTerm, upperTerm, true, false);
-		addLuceneQuery(query, Occur.MUST);
+		addFilterQuery(query, reusable);
+	}
+
+	/**
+	 * 增加过滤条件，过滤条件不参与评分，过滤结果不缓存。
+	 * 
+	 * @param query
+	 *            过滤条件
+	 */
+	public void addFilterQuery(Query query) {
+		addFilterQuery(query, false);
+	}
+
+	/**
+	 * 增加过滤条件。<br/>
+	 * 过滤条件不参与评分，所有过滤条件转换为过滤器后与setFilter设置的过滤器合并为一个过滤器。<br/>
+	 * 可重复使用的过滤条件通过FilterCache转换为缓存过滤器，相同的过滤条件在多次搜索间重复使用已缓存的文档集；其它过滤条件每次搜索时重新计算，不占用缓存。
+	 * 
+	 * @param query
+	 *            过滤条件
+	 * @param reusable
+	 *            过滤条件是否会在多次搜索间重复出现，是则缓存过滤结果
+	 */
+	public void addFilterQuery(Query query, Boolean reusable) {
+		if (query != null) {
+			filterQueries.put(query, reusable);
+		}
 	}
 
 	/**
@@ -244,8 +330,9 @@ public class FullTextCriteria {
 			fullTextQuery.setSort(new Sort(sortFields
 					.toArray(new SortField[] {})));
 		}
-		if (filter != null) {
-			fullTextQuery.setFilter(filter);
+		Filter combinedFilter = generateFilter();
+		if (combinedFilter != null) {
+			fullTextQuery.setFilter(combinedFilter);
 		}
 		if (criteriaQuery != null) {
 			fullTextQuery.setCriteriaQuery(criteriaQuery);
@@ -258,6 +345,52 @@ public class FullTextCriteria {
 		return fullTextQuery;
 	}
 
+	/**
+	 * 从Lucene排序位置之后开始搜索指定数量的记录。<br/>
+	 * 使用Lucene的searchAfter方法，只收集当前页数量的命中记录，内存和耗时不随翻页深度增加。没有设置排序字段时按评分排序，最后总是按ID排序以保证排序位置唯一。
+	 * 
+	 * @param after
+	 *            上一页最后一条记录的排序位置，为null时从第一条记录开始
+	 * @param size
+	 *            记录数
+	 * @param backward
+	 *            是否按相反的顺序搜索，用于向前翻页
+	 * @return 返回按搜索顺序排列的以记录ID为键的排序位置。
+	 */
+	public Map<String, FieldDoc> searchAfter(FieldDoc after, Integer size,
+			Boolean backward) {
+		SearchFactory searchFactory = session.getSearchFactory();
+		Class<?>[] indexedTypes = getIndexedTypes(searchFactory);
+		IndexReader reader = searchFactory.getIndexReaderAccessor().open(
+				indexedTypes);
+		try {
+			BooleanFilter seekFilter = new BooleanFilter();
+			seekFilter.add(
+					FilterCache.getFilter(generateClassQuery(indexedTypes)),
+					Occur.MUST);
+			Filter combinedFilter = generateFilter();
+			if (combinedFilter != null) {
+				seekFilter.add(combinedFilter, Occur.MUST);
+			}
+			IndexSearcher searcher = new IndexSearcher(reader);
+			TopDocs topDocs = searcher.searchAfter(after,
+					generateLuceneQuery(), seekFilter, size,
+					generateSeekSort(backward), false, false);
+			Map<String, FieldDoc> result = new LinkedHashMap<String, FieldDoc>();
+			for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+				FieldDoc fieldDoc = (FieldDoc) scoreDoc;
+				// 最后一个排序字段是ID字段
+				BytesRef id = (BytesRef) fieldDoc.fields[fieldDoc.fields.length - 1];
+				result.put(id.utf8ToString(), fieldDoc);
+			}
+			return result;
+		} catch (IOException e) {
+			throw new HibernateException("全文搜索时发生异常", e);
+		} finally {
+			searchFactory.getIndexReaderAccessor().close(reader);
+		}
+	}
+
 	/**
 	 * 生成多字段查询对象。
 	 * 
@@ -273,9 +406,16 @@ public class FullTextCriteria {
 		BooleanQuery multiFieldWildcardQuery = new BooleanQuery();
 		for (Entry<String, Analyze> field : fields.entrySet()) {
 			if (field.getValue() == Analyze.NO) {
-				Term term = new Term(field.getKey(), "*" + query + "*");
-				WildcardQuery fuzzyQuery = new WildcardQuery(term);
-				multiFieldWildcardQuery.add(fuzzyQuery, Occur.SHOULD);
+				Integer gramSize = getGramSize(field.getKey());
+				if (gramSize != null) {
+					multiFieldWildcardQuery.add(
+							generateNGramQuery(field.getKey(), unescape(query),
+									gramSize), Occur.SHOULD);
+				} else {
+					Term term = new Term(field.getKey(), "*" + query + "*");
+					WildcardQuery fuzzyQuery = new WildcardQuery(term);
+					multiFieldWildcardQuery.add(fuzzyQuery, Occur.SHOULD);
+				}
 			} else {
 				QueryParser parser = new QueryParser(field.getKey(), session
 						.getSearchFactory().getAnalyzer(clazz));
@@ -310,16 +450,84 @@ public class FullTextCriteria {
 		return generateMultiFieldQuery(query, fields);
 	}
 
+	/**
+	 * 生成N元组伴随字段上的查询对象。关键字短于片段长度时使用前缀查询，等于片段长度时使用词条查询，长于片段长度时使用由连续片段组成的短语查询。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param keyword
+	 *            关键字
+	 * @param gramSize
+	 *            片段长度
+	 * @return 返回N元组伴随字段上的查询对象。
+	 */
+	private Query generateNGramQuery(String fieldName, String keyword,
+			Integer gramSize) {
+		String ngramFieldName = fieldName + NGramBridge.SUFFIX;
+		if (keyword.length() < gramSize) {
+			return new PrefixQuery(new Term(ngramFieldName, keyword));
+		}
+		if (keyword.length() == gramSize) {
+			return new TermQuery(new Term(ngramFieldName, keyword));
+		}
+		PhraseQuery phraseQuery = new PhraseQuery();
+		for (int i = 0; i + gramSize <= keyword.length(); i++) {
+			phraseQuery.add(new Term(ngramFieldName, keyword.substring(i, i
+					+ gramSize)), i);
+		}
+		return phraseQuery;
+	}
+
+	/**
+	 * 获取使用NGramBridge索引的字段的片段长度。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @return 返回字段的片段长度，字段没有使用NGramBridge索引时返回null。
+	 */
+	private Integer getGramSize(String fieldName) {
+		Field field = BeanUtils.findField(clazz, fieldName);
+		if (field == null) {
+			return null;
+		}
+		FieldBridge bridge = field.getAnnotation(FieldBridge.class);
+		if (bridge == null
+				&& field.isAnnotationPresent(org.hibernate.search.annotations.Field.class)) {
+			bridge = field.getAnnotation(
+					org.hibernate.search.annotations.Field.class).bridge();
+		}
+		if (bridge == null || !NGramBridge.class.isAssignableFrom(bridge.impl())) {
+			return null;
+		}
+		for (Parameter parameter : bridge.params()) {
+			if (NGramBridge.GRAM_SIZE.equals(parameter.name())) {
+				return Integer.valueOf(parameter.value());
+			}
+		}
+		return NGramBridge.DEFAULT_GRAM_SIZE;
+	}
+
+	/**
+	 * 去除经QueryParser.escape转义的关键字中的转义字符。
+	 * 
+	 * @param query
+	 *            转义后的关键字
+	 * @return 返回原关键字。
+	 */
+	private String unescape(String query) {
+		return query.replaceAll("\\\\(.)", "$1");
+	}
+
 	/**
 	 * 根据当前设置生成Lucene查询对象。
 	 * 
 	 * @return 返回Lucene查询对象。
 	 */
-	private Query generateLuceneQuery() {
+	public Query generateLuceneQuery() {
 		BooleanQuery query = new BooleanQuery();
 		// 如果关键字为空，则匹配任意记录
 		if (StringUtils.isEmpty(keyword)) {
-			query.add(new WildcardQuery(new Term("id", "*")), Occur.MUST);
+			query.add(new MatchAllDocsQuery(), Occur.MUST);
 		} else {
 			query.add(
 					generateMultiFieldQuery(QueryParser.escape(keyword),
@@ -330,8 +538,144 @@ public class FullTextCriteria {
 			query.add(attachLuceneQuery.getQuery(),
 					attachLuceneQuery.getOccur());
 		}
-		log.debug("全文搜索[{}]查询语句：{}", clazz.getSimpleName(), query);
-		return query;
+		Query optimizedQuery = getQueryOptimizer().optimize(query);
+		log.debug("全文搜索[{}]查询语句：{}", clazz.getSimpleName(), optimizedQuery);
+		return optimizedQuery;
+	}
+
+	/**
+	 * 将过滤条件和setFilter设置的过滤器合并为一个过滤器。
+	 * 
+	 * @return 返回合并后的过滤器，没有过滤条件和过滤器时返回null。
+	 */
+	public Filter generateFilter() {
+		if (filterQueries.isEmpty()) {
+			return filter;
+		}
+		List<Filter> filters = new ArrayList<Filter>();
+		for (Entry<Query, Boolean> filterQuery : filterQueries.entrySet()) {
+			Query query = getQueryOptimizer().optimize(filterQuery.getKey());
+			filters.add(filterQuery.getValue() ? FilterCache.getFilter(query)
+					: new QueryWrapperFilter(query));
+		}
+		if (filters.size() == 1 && filter == null) {
+			return filters.get(0);
+		}
+		BooleanFilter booleanFilter = new BooleanFilter();
+		for (Filter queryFilter : filters) {
+			booleanFilter.add(queryFilter, Occur.MUST);
+		}
+		if (filter != null) {
+			booleanFilter.add(filter, Occur.MUST);
+		}
+		return booleanFilter;
+	}
+
+	/**
+	 * 获取查询优化器。
+	 * 
+	 * @return 返回查询优化器。
+	 */
+	private QueryOptimizer getQueryOptimizer() {
+		if (queryOptimizer == null) {
+			queryOptimizer = new QueryOptimizer(getIdFieldName());
+		}
+		return queryOptimizer;
+	}
+
+	/**
+	 * 获取ID字段名，即实体的标识属性名。
+	 * 
+	 * @return 返回ID字段名。
+	 */
+	private String getIdFieldName() {
+		ClassMetadata metadata = session.getSessionFactory().getClassMetadata(
+				clazz);
+		return metadata == null ? "id" : metadata.getIdentifierPropertyName();
+	}
+
+	/**
+	 * 获取实体类及其子类中建立了全文索引的类。
+	 * 
+	 * @param searchFactory
+	 *            全文搜索工厂
+	 * @return 返回建立了全文索引的类。
+	 */
+	private Class<?>[] getIndexedTypes(SearchFactory searchFactory) {
+		List<Class<?>> indexedTypes = new ArrayList<Class<?>>();
+		for (Class<?> indexedType : searchFactory.getIndexedTypes()) {
+			if (clazz.isAssignableFrom(indexedType)) {
+				indexedTypes.add(indexedType);
+			}
+		}
+		return indexedTypes.toArray(new Class<?>[] {});
+	}
+
+	/**
+	 * 生成限定实体类型的查询，多个实体类型共用同一个索引时排除其它类型的记录。
+	 * 
+	 * @param indexedTypes
+	 *            建立了全文索引的类
+	 * @return 返回限定实体类型的查询。
+	 */
+	private Query generateClassQuery(Class<?>[] indexedTypes) {
+		BooleanQuery classQuery = new BooleanQuery();
+		for (Class<?> indexedType : indexedTypes) {
+			classQuery.add(new TermQuery(new Term(
+					ProjectionConstants.OBJECT_CLASS, indexedType.getName())),
+					Occur.SHOULD);
+		}
+		return getQueryOptimizer().optimize(classQuery);
+	}
+
+	/**
+	 * 生成游标分页的排序，没有设置排序字段时按评分排序，最后按ID排序。
+	 * 
+	 * @param backward
+	 *            是否按相反的顺序排序
+	 * @return 返回游标分页的排序。
+	 */
+	public Sort generateSeekSort(Boolean backward) {
+		List<SortField> seekSortFields = new ArrayList<SortField>();
+		if (sortFields.isEmpty()) {
+			seekSortFields.add(new SortField(null, SortField.Type.SCORE,
+					backward));
+		}
+		for (SortField sortField : sortFields) {
+			seekSortFields.add(new SortField(sortField.getField(), sortField
+					.getType(), sortField.getReverse() ^ backward));
+		}
+		// 按ID排序使排序位置唯一，向前翻页时的顺序与向后翻页时正好相反
+		seekSortFields.add(new SortField(getIdFieldName(),
+				SortField.Type.STRING, backward));
+		return new Sort(seekSortFields.toArray(new SortField[] {}));
+	}
+
+	/**
+	 * 获取查询条件的描述，包括关键字、搜索字段、附加的查询条件、过滤条件和排序字段，用于日志输出。<br/>
+	 * 只输出已设置的内容，不生成Lucene查询和过滤器，不会访问全文搜索Session和过滤器缓存。
+	 * 
+	 * @return 返回查询条件的描述。
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("keyword=").append(keyword);
+		builder.append(" fields=").append(searchFields.keySet());
+		for (AttachLuceneQuery luceneQuery : luceneQueries) {
+			builder.append(" ").append(luceneQuery.getOccur())
+					.append(luceneQuery.getQuery());
+		}
+		if (!filterQueries.isEmpty()) {
+			builder.append(" filter=").append(filterQueries.keySet());
+		}
+		if (filter != null) {
+			builder.append(" filter=").append(filter);
+		}
+		if (!sortFields.isEmpty()) {
+			builder.append(" sort=").append(sortFields);
+		}
+		return builder.toString();
 	}
 
 	public Boolean getLookupCache() {
@@ -1,7 +1,17 @@
 package coo.core.hibernate.search;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.hibernate.CacheMode;
 import org.hibernate.search.FullTextSession;
@@ -14,15 +24,31 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.stereotype.Component;
 
 import coo.base.exception.UncheckedException;
+import coo.base.util.StringUtils;
 import coo.core.hibernate.EntityClassBeanFactoryPostProcessor;
 
 /**
- * 全文索引组件。
+ * 全文索引组件。<br/>
+ * 每个实体类使用独立的索引构建组件重建索引，多个实体类按配置的并行数同时重建。<br/>
+ * 重建索引的参数从全局配置文件读取，“search.indexer.实体类名.参数名”为单个实体类的配置，“search.indexer.参数名”为默认配置，
+ * 参数名包括threads（加载实体的线程数）、batchSize（每批加载的实体数）、idFetchSize（读取实体ID时每次获取的记录数）、cacheMode（二级缓存模式）。<br/>
+ * 未配置加载实体的线程数时根据CPU核数和数据库连接池大小计算，重建索引最多占用连接池一半的连接。
  */
 @Component
 public class FullTextIndexer extends EntityClassBeanFactoryPostProcessor {
+	/** 配置参数前缀 */
+	private static final String SETTING_PREFIX = "search.indexer.";
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private List<Class<?>> indexedEntityClasses = new ArrayList<Class<?>>();
+	/** 同时重建索引的实体类数 */
+	private Integer typesToIndexInParallel;
+	/** 默认的重建索引参数配置 */
+	private IndexerProfile defaultProfile;
+	/** 实体类的重建索引参数配置 */
+	private Map<Class<?>, IndexerProfile> profiles = new HashMap<Class<?>, IndexerProfile>();
+	/** 最近一次重建索引的进度 */
+	private volatile Map<Class<?>, IndexingProgressMonitor> progressMonitors = Collections
+			.emptyMap();
 
 	@Override
 	public void postProcessBeanFactory(
@@ -33,6 +59,23 @@ public class FullTextIndexer extends EntityClassBeanFactoryPostProcessor {
 				indexedEntityClasses.add(entityClass);
 			}
 		}
+		int cores = Runtime.getRuntime().availableProcessors();
+		// 配置为0或负数时按1处理，避免计算加载线程数时除以0
+		typesToIndexInParallel = Math.max(1, Integer.valueOf(getSetting(
+				beanFactory, SETTING_PREFIX + "typesToIndexInParallel",
+				String.valueOf(Math.min(2, cores)))));
+		// 重建索引最多占用连接池一半的连接，每个实体类还需要一个读取实体ID的连接
+		int maxActive = Integer.valueOf(getSetting(beanFactory, "db.maxActive",
+				"100"));
+		int threads = Math.max(1, Math.min(cores * 2, maxActive / 2
+				/ typesToIndexInParallel - 1));
+		defaultProfile = createProfile(beanFactory, SETTING_PREFIX,
+				new IndexerProfile(threads, 25, 100, CacheMode.IGNORE));
+		for (Class<?> entityClass : indexedEntityClasses) {
+			profiles.put(entityClass, createProfile(beanFactory,
+					SETTING_PREFIX + entityClass.getSimpleName() + ".",
+					defaultProfile));
+		}
 	}
 
 	/**
@@ -44,43 +87,225 @@ public class FullTextIndexer extends EntityClassBeanFactoryPostProcessor {
 	public void startAndWait(Class<?>... entityClasses) {
 		try {
 			log.info("开始重建索引...");
-			createIndexer(entityClasses).startAndWait();
+			index(prepare(entityClasses));
 			log.info("完成重建索引。");
+		} catch (UncheckedException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new UncheckedException("重建全文索引时发生异常。", e);
 		}
 	}
 
 	/**
-	 * 异步创建指定实体类的全文索引。
+	 * 异步创建指定实体类的全文索引，如果未指定实体类则创建全部实体类的全文索引。
 	 * 
 	 * @param entityClasses
 	 *            实体类列表
 	 */
 	public void start(Class<?>... entityClasses) {
+		final List<IndexingProgressMonitor> monitors = prepare(entityClasses);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					index(monitors);
+				} catch (Exception e) {
+					log.error("重建全文索引时发生异常。", e);
+				}
+			}
+		}, "FullTextIndexer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 判断是否正在重建索引。
+	 * 
+	 * @return 返回是否正在重建索引。
+	 */
+	public synchronized Boolean isIndexing() {
+		for (IndexingProgressMonitor monitor : progressMonitors.values()) {
+			if (!monitor.isCompleted()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取最近一次重建索引中各实体类的进度。
+	 * 
+	 * @return 返回各实体类的重建索引进度。
+	 */
+	public Collection<IndexingProgressMonitor> getProgressMonitors() {
+		return progressMonitors.values();
+	}
+
+	/**
+	 * 获取实体类的重建索引参数配置。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回实体类的重建索引参数配置。
+	 */
+	public IndexerProfile getProfile(Class<?> entityClass) {
+		IndexerProfile profile = profiles.get(entityClass);
+		return profile != null ? profile : defaultProfile;
+	}
+
+	/**
+	 * 为待重建索引的实体类创建进度，正在重建索引时抛出异常。<br/>
+	 * 父类和子类同时重建索引时只保留父类，父类的索引构建组件会同时重建子类的索引。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 * @return 返回各实体类的重建索引进度。
+	 */
+	private synchronized List<IndexingProgressMonitor> prepare(
+			Class<?>... entityClasses) {
+		if (isIndexing()) {
+			throw new UncheckedException("正在重建全文索引，请稍后再试。");
+		}
+		List<Class<?>> classes = entityClasses.length > 0 ? Arrays
+				.asList(entityClasses) : indexedEntityClasses;
+		Map<Class<?>, IndexingProgressMonitor> monitors = new LinkedHashMap<Class<?>, IndexingProgressMonitor>();
+		for (Class<?> entityClass : classes) {
+			if (!hasSuperClass(entityClass, classes)) {
+				monitors.put(entityClass, new IndexingProgressMonitor(
+						entityClass, getProfile(entityClass)));
+			}
+		}
+		progressMonitors = monitors;
+		return new ArrayList<IndexingProgressMonitor>(monitors.values());
+	}
+
+	/**
+	 * 按配置的并行数重建各实体类的索引，并等待全部完成。
+	 * 
+	 * @param monitors
+	 *            各实体类的重建索引进度
+	 * @throws Exception
+	 *             重建索引时发生异常时抛出
+	 */
+	private void index(List<IndexingProgressMonitor> monitors)
+			throws Exception {
+		FullTextSession session = Search.getFullTextSession(sessionFactory
+				.openSession());
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1,
+				Math.min(typesToIndexInParallel, monitors.size())));
 		try {
-			createIndexer(entityClasses).start();
-		} catch (Exception e) {
-			throw new UncheckedException("重建全文索引时发生异常。", e);
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (final IndexingProgressMonitor monitor : monitors) {
+				final MassIndexer indexer = createIndexer(session, monitor);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						monitor.start();
+						indexer.startAndWait();
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+			session.close();
+			// 异常中止时将未完成的进度标记为已完成，以便可以再次重建索引
+			for (IndexingProgressMonitor monitor : monitors) {
+				if (!monitor.isCompleted()) {
+					monitor.indexingCompleted();
+				}
+			}
 		}
 	}
 
 	/**
 	 * 创建索引构建组件。
 	 * 
-	 * @param entityClasses
-	 *            业务实体类
+	 * @param session
+	 *            全文搜索会话
+	 * @param monitor
+	 *            实体类的重建索引进度
 	 * @return 返回索引构建组件。
 	 */
-	private MassIndexer createIndexer(Class<?>... entityClasses) {
-		FullTextSession session = Search.getFullTextSession(sessionFactory
-				.getCurrentSession());
-		return session.createIndexer(entityClasses).typesToIndexInParallel(2)
-				.threadsToLoadObjects(20).batchSizeToLoadObjects(25)
-				.cacheMode(CacheMode.NORMAL);
+	private MassIndexer createIndexer(FullTextSession session,
+			IndexingProgressMonitor monitor) {
+		IndexerProfile profile = monitor.getProfile();
+		return session.createIndexer(monitor.getEntityClass())
+				.typesToIndexInParallel(1)
+				.threadsToLoadObjects(profile.getThreadsToLoadObjects())
+				.batchSizeToLoadObjects(profile.getBatchSizeToLoadObjects())
+				.idFetchSize(profile.getIdFetchSize())
+				.cacheMode(profile.getCacheMode()).progressMonitor(monitor);
+	}
+
+	/**
+	 * 从全局配置文件读取重建索引参数配置，未配置的参数使用默认配置。
+	 * 
+	 * @param beanFactory
+	 *            Bean工厂
+	 * @param prefix
+	 *            配置参数前缀
+	 * @param defaults
+	 *            默认配置
+	 * @return 返回重建索引参数配置。
+	 */
+	private IndexerProfile createProfile(
+			ConfigurableListableBeanFactory beanFactory, String prefix,
+			IndexerProfile defaults) {
+		return new IndexerProfile(Integer.valueOf(getSetting(beanFactory,
+				prefix + "threads",
+				String.valueOf(defaults.getThreadsToLoadObjects()))),
+				Integer.valueOf(getSetting(beanFactory, prefix + "batchSize",
+						String.valueOf(defaults.getBatchSizeToLoadObjects()))),
+				Integer.valueOf(getSetting(beanFactory, prefix + "idFetchSize",
+						String.valueOf(defaults.getIdFetchSize()))),
+				CacheMode.valueOf(getSetting(beanFactory, prefix + "cacheMode",
+						defaults.getCacheMode().name()).toUpperCase()));
+	}
+
+	/**
+	 * 从全局配置文件读取配置参数。
+	 * 
+	 * @param beanFactory
+	 *            Bean工厂
+	 * @param key
+	 *            配置参数名
+	 * @param defaultValue
+	 *            默认值
+	 * @return 返回配置参数值，未配置时返回默认值。
+	 */
+	private String getSetting(ConfigurableListableBeanFactory beanFactory,
+			String key, String defaultValue) {
+		String value = beanFactory.resolveEmbeddedValue("${" + key + ":}");
+		// 没有配置属性占位符解析器时原样返回
+		if (StringUtils.isBlank(value) || value.startsWith("${")) {
+			return defaultValue;
+		}
+		return value.trim();
+	}
+
+	/**
+	 * 判断实体类的父类是否也在待重建索引的实体类列表中。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param classes
+	 *            待重建索引的实体类列表
+	 * @return 返回实体类的父类是否也在列表中。
+	 */
+	private Boolean hasSuperClass(Class<?> entityClass, List<Class<?>> classes) {
+		for (Class<?> clazz : classes) {
+			if (clazz != entityClass && clazz.isAssignableFrom(entityClass)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public List<Class<?>> getIndexedEntityClasses() {
 		return indexedEntityClasses;
 	}
-}
\ No newline at end of file
+}
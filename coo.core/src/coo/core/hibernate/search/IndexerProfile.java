@@ -0,0 +1,61 @@
+package coo.core.hibernate.search;
+
+import org.hibernate.CacheMode;
+
+/**
+ * 重建全文索引的参数配置。
+ */
+public class IndexerProfile {
+	/** 加载实体的线程数 */
+	private Integer threadsToLoadObjects;
+	/** 每批加载的实体数 */
+	private Integer batchSizeToLoadObjects;
+	/** 读取实体ID时每次从数据库获取的记录数 */
+	private Integer idFetchSize;
+	/** 加载实体时的二级缓存模式 */
+	private CacheMode cacheMode;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param threadsToLoadObjects
+	 *            加载实体的线程数
+	 * @param batchSizeToLoadObjects
+	 *            每批加载的实体数
+	 * @param idFetchSize
+	 *            读取实体ID时每次从数据库获取的记录数
+	 * @param cacheMode
+	 *            加载实体时的二级缓存模式
+	 */
+	public IndexerProfile(Integer threadsToLoadObjects,
+			Integer batchSizeToLoadObjects, Integer idFetchSize,
+			CacheMode cacheMode) {
+		this.threadsToLoadObjects = threadsToLoadObjects;
+		this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+		this.idFetchSize = idFetchSize;
+		this.cacheMode = cacheMode;
+	}
+
+	@Override
+	public String toString() {
+		return "threads=" + threadsToLoadObjects + ", batchSize="
+				+ batchSizeToLoadObjects + ", idFetchSize=" + idFetchSize
+				+ ", cacheMode=" + cacheMode;
+	}
+
+	public Integer getThreadsToLoadObjects() {
+		return threadsToLoadObjects;
+	}
+
+	public Integer getBatchSizeToLoadObjects() {
+		return batchSizeToLoadObjects;
+	}
+
+	public Integer getIdFetchSize() {
+		return idFetchSize;
+	}
+
+	public CacheMode getCacheMode() {
+		return cacheMode;
+	}
+}
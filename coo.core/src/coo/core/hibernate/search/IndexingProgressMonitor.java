@@ -0,0 +1,182 @@
+package coo.core.hibernate.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.search.batchindexing.MassIndexerProgressMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 单个实体类的全文索引重建进度。<br/>
+ * 记录待索引的总记录数和已完成的记录数，计算每秒索引的记录数和预计剩余时间，进度每增加1%输出一次日志。
+ */
+public class IndexingProgressMonitor implements MassIndexerProgressMonitor {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** 实体类 */
+	private Class<?> entityClass;
+	/** 重建索引的参数配置 */
+	private IndexerProfile profile;
+	/** 待索引的总记录数 */
+	private AtomicLong totalCount = new AtomicLong();
+	/** 已加载的实体数 */
+	private AtomicLong entitiesLoaded = new AtomicLong();
+	/** 已生成的索引文档数 */
+	private AtomicLong documentsBuilt = new AtomicLong();
+	/** 已写入索引的文档数 */
+	private AtomicLong documentsAdded = new AtomicLong();
+	/** 最后一次输出日志时的进度百分比 */
+	private AtomicInteger loggedPercent = new AtomicInteger();
+	/** 开始时间 */
+	private volatile long startTime;
+	/** 结束时间 */
+	private volatile long endTime;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param profile
+	 *            重建索引的参数配置
+	 */
+	public IndexingProgressMonitor(Class<?> entityClass, IndexerProfile profile) {
+		this.entityClass = entityClass;
+		this.profile = profile;
+	}
+
+	/**
+	 * 开始计时。
+	 */
+	public void start() {
+		startTime = System.currentTimeMillis();
+		log.info("开始重建[{}]的索引（{}）...", entityClass.getSimpleName(),
+				profile);
+	}
+
+	@Override
+	public void addToTotalCount(long count) {
+		totalCount.addAndGet(count);
+	}
+
+	@Override
+	public void entitiesLoaded(int size) {
+		entitiesLoaded.addAndGet(size);
+	}
+
+	@Override
+	public void documentsBuilt(int number) {
+		documentsBuilt.addAndGet(number);
+	}
+
+	@Override
+	public void documentsAdded(long increment) {
+		documentsAdded.addAndGet(increment);
+		int percent = getPercent();
+		int lastPercent = loggedPercent.get();
+		if (percent > lastPercent
+				&& loggedPercent.compareAndSet(lastPercent, percent)) {
+			log.info("重建[{}]的索引：{}/{}（{}%），{}条/秒，预计剩余{}秒。",
+					entityClass.getSimpleName(), getDocumentsAdded(),
+					getTotalCount(), percent, getDocumentsPerSecond(),
+					getRemainingSeconds());
+		}
+	}
+
+	@Override
+	public void indexingCompleted() {
+		endTime = System.currentTimeMillis();
+		log.info("完成重建[{}]的索引，共{}条，耗时{}秒，{}条/秒。",
+				entityClass.getSimpleName(), getDocumentsAdded(),
+				getElapsedMillis() / 1000, getDocumentsPerSecond());
+	}
+
+	/**
+	 * 获取已完成的进度百分比。
+	 * 
+	 * @return 返回已完成的进度百分比，总记录数未知时返回0。
+	 */
+	public Integer getPercent() {
+		long total = totalCount.get();
+		if (total <= 0) {
+			return isCompleted() ? 100 : 0;
+		}
+		return (int) Math.min(100, documentsAdded.get() * 100 / total);
+	}
+
+	/**
+	 * 获取每秒索引的记录数。
+	 * 
+	 * @return 返回每秒索引的记录数。
+	 */
+	public Long getDocumentsPerSecond() {
+		long elapsedMillis = getElapsedMillis();
+		if (elapsedMillis <= 0) {
+			return 0L;
+		}
+		return documentsAdded.get() * 1000 / elapsedMillis;
+	}
+
+	/**
+	 * 获取预计剩余的秒数。
+	 * 
+	 * @return 返回预计剩余的秒数，尚未开始索引时返回null。
+	 */
+	public Long getRemainingSeconds() {
+		if (isCompleted()) {
+			return 0L;
+		}
+		long added = documentsAdded.get();
+		if (added <= 0) {
+			return null;
+		}
+		long remaining = Math.max(0, totalCount.get() - added);
+		return remaining * getElapsedMillis() / added / 1000;
+	}
+
+	/**
+	 * 获取已耗费的毫秒数。
+	 * 
+	 * @return 返回已耗费的毫秒数。
+	 */
+	public Long getElapsedMillis() {
+		if (startTime == 0) {
+			return 0L;
+		}
+		return (isCompleted() ? endTime : System.currentTimeMillis())
+				- startTime;
+	}
+
+	/**
+	 * 判断是否已完成。
+	 * 
+	 * @return 返回是否已完成。
+	 */
+	public Boolean isCompleted() {
+		return endTime > 0;
+	}
+
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	public IndexerProfile getProfile() {
+		return profile;
+	}
+
+	public Long getTotalCount() {
+		return totalCount.get();
+	}
+
+	public Long getEntitiesLoaded() {
+		return entitiesLoaded.get();
+	}
+
+	public Long getDocumentsBuilt() {
+		return documentsBuilt.get();
+	}
+
+	public Long getDocumentsAdded() {
+		return documentsAdded.get();
+	}
+}
@@ -0,0 +1,90 @@
+package coo.core.hibernate.search;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.TextField;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.hibernate.search.bridge.ParameterizedBridge;
+
+/**
+ * N元组字段全文索引桥接器。<br/>
+ * 用于不分词（Analyze.NO）的字段，除按原值索引字段外，还将字段值从每个位置开始截取固定长度（gramSize参数，默认为2）的片段，
+ * 依次索引到名称加“_ngram”后缀的伴随字段中，末尾不足长度的片段按实际长度索引。<br/>
+ * FullTextCriteria按关键字搜索时自动在伴随字段上使用词条、前缀或短语查询代替需要遍历整个词典的通配符查询。
+ */
+public class NGramBridge implements FieldBridge, ParameterizedBridge {
+	/** 伴随字段名后缀 */
+	public static final String SUFFIX = "_ngram";
+	/** 片段长度参数名 */
+	public static final String GRAM_SIZE = "gramSize";
+	/** 默认片段长度 */
+	public static final int DEFAULT_GRAM_SIZE = 2;
+	private int gramSize = DEFAULT_GRAM_SIZE;
+
+	@Override
+	public void set(String name, Object value, Document document,
+			LuceneOptions luceneOptions) {
+		if (value == null) {
+			return;
+		}
+		String text = value.toString();
+		luceneOptions.addFieldToDocument(name, text, document);
+		document.add(new TextField(name + SUFFIX, new NGramTokenStream(text,
+				gramSize)));
+	}
+
+	@Override
+	public void setParameterValues(Map<String, String> parameters) {
+		String gramSize = parameters.get(GRAM_SIZE);
+		if (gramSize != null) {
+			this.gramSize = Integer.parseInt(gramSize);
+		}
+	}
+
+	/**
+	 * 依次输出从每个位置开始的固定长度片段的词条流。
+	 */
+	private static class NGramTokenStream extends TokenStream {
+		private final CharTermAttribute termAttribute = addAttribute(CharTermAttribute.class);
+		private String text;
+		private int gramSize;
+		/** 下一个片段的起始位置 */
+		private int start;
+
+		/**
+		 * 构造方法。
+		 * 
+		 * @param text
+		 *            字段值
+		 * @param gramSize
+		 *            片段长度
+		 */
+		public NGramTokenStream(String text, int gramSize) {
+			this.text = text;
+			this.gramSize = gramSize;
+		}
+
+		@Override
+		public boolean incrementToken() {
+			if (start >= text.length()) {
+				return false;
+			}
+			clearAttributes();
+			int end = Math.min(start + gramSize, text.length());
+			termAttribute.setEmpty().append(text, start, end);
+			start++;
+			return true;
+		}
+
+		@Override
+		public void reset() throws IOException {
+			super.reset();
+			start = 0;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package coo.core.hibernate.search;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.WildcardQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 全文搜索查询优化器。<br/>
+ * 在执行前改写Lucene查询，改写后匹配的文档集合不变：
+ * <ul>
+ * <li>将ID字段上的“*”通配符查询改写为不需要遍历词典的MatchAllDocsQuery；</li>
+ * <li>将必须满足且不含可选子句的嵌套BooleanQuery展开到上一层；</li>
+ * <li>去除重复的子句（指定了最少匹配的可选子句数时不去除重复的可选子句），以及已有其它必须满足子句时多余的匹配所有文档子句；</li>
+ * <li>将只有一个子句的BooleanQuery折叠为该子句的查询。</li>
+ * </ul>
+ * 改写可能改变评分的细微差异，但不改变搜索结果。
+ */
+public class QueryOptimizer {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** ID字段名 */
+	private String idFieldName;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param idFieldName
+	 *            ID字段名
+	 */
+	public QueryOptimizer(String idFieldName) {
+		this.idFieldName = idFieldName;
+	}
+
+	/**
+	 * 优化Lucene查询，并在调试日志中输出优化前后的查询。
+	 * 
+	 * @param query
+	 *            Lucene查询
+	 * @return 返回优化后的Lucene查询。
+	 */
+	public Query optimize(Query query) {
+		Query optimized = rewrite(query);
+		if (log.isDebugEnabled() && !optimized.equals(query)) {
+			log.debug("全文搜索查询优化前：{}，优化后：{}", query, optimized);
+		}
+		return optimized;
+	}
+
+	/**
+	 * 改写Lucene查询。
+	 * 
+	 * @param query
+	 *            Lucene查询
+	 * @return 返回改写后的Lucene查询。
+	 */
+	private Query rewrite(Query query) {
+		if (query instanceof WildcardQuery) {
+			return rewriteWildcard((WildcardQuery) query);
+		}
+		if (query instanceof BooleanQuery) {
+			return rewriteBoolean((BooleanQuery) query);
+		}
+		return query;
+	}
+
+	/**
+	 * 将ID字段上的“*”通配符查询改写为匹配所有文档查询。
+	 * 
+	 * @param query
+	 *            通配符查询
+	 * @return 返回改写后的Lucene查询。
+	 */
+	private Query rewriteWildcard(WildcardQuery query) {
+		Term term = query.getTerm();
+		if (term.field().equals(idFieldName) && "*".equals(term.text())) {
+			MatchAllDocsQuery matchAllQuery = new MatchAllDocsQuery();
+			matchAllQuery.setBoost(query.getBoost());
+			return matchAllQuery;
+		}
+		return query;
+	}
+
+	/**
+	 * 改写BooleanQuery，依次展开嵌套查询、去除重复和多余的子句、折叠单子句查询。
+	 * 
+	 * @param query
+	 *            BooleanQuery
+	 * @return 返回改写后的Lucene查询。
+	 */
+	private Query rewriteBoolean(BooleanQuery query) {
+		int minimumNumberShouldMatch = query.getMinimumNumberShouldMatch();
+		List<BooleanClause> clauses = new ArrayList<BooleanClause>();
+		for (BooleanClause clause : query.clauses()) {
+			Query subQuery = rewrite(clause.getQuery());
+			if (clause.getOccur() == Occur.MUST
+					&& subQuery instanceof BooleanQuery
+					&& isFlattenable((BooleanQuery) subQuery)) {
+				for (BooleanClause subClause : ((BooleanQuery) subQuery)
+						.clauses()) {
+					addClause(clauses, subClause, minimumNumberShouldMatch);
+				}
+			} else {
+				addClause(clauses,
+						new BooleanClause(subQuery, clause.getOccur()),
+						minimumNumberShouldMatch);
+			}
+		}
+		removeRedundantMatchAll(clauses);
+		if (clauses.size() == 1 && query.getBoost() == 1f
+				&& query.getMinimumNumberShouldMatch() == 0
+				&& clauses.get(0).getOccur() != Occur.MUST_NOT) {
+			return clauses.get(0).getQuery();
+		}
+		BooleanQuery result = new BooleanQuery(query.isCoordDisabled());
+		result.setBoost(query.getBoost());
+		result.setMinimumNumberShouldMatch(query.getMinimumNumberShouldMatch());
+		for (BooleanClause clause : clauses) {
+			result.add(clause);
+		}
+		return result;
+	}
+
+	/**
+	 * 判断嵌套的BooleanQuery是否可以展开到上一层。只包含必须满足和必须不满足的子句且至少有一个必须满足的子句时可以展开。
+	 * 
+	 * @param query
+	 *            嵌套的BooleanQuery
+	 * @return 返回是否可以展开。
+	 */
+	private boolean isFlattenable(BooleanQuery query) {
+		if (query.getBoost() != 1f || query.getMinimumNumberShouldMatch() != 0) {
+			return false;
+		}
+		boolean hasMust = false;
+		for (BooleanClause clause : query.clauses()) {
+			if (clause.getOccur() == Occur.SHOULD) {
+				return false;
+			}
+			hasMust = hasMust || clause.getOccur() == Occur.MUST;
+		}
+		return hasMust;
+	}
+
+	/**
+	 * 添加子句，忽略重复的子句。<br/>
+	 * 指定了最少匹配的可选子句数时，重复的可选子句会被分别计数，去除后匹配结果会改变，因此保留。
+	 * 
+	 * @param clauses
+	 *            子句列表
+	 * @param clause
+	 *            子句
+	 * @param minimumNumberShouldMatch
+	 *            最少匹配的可选子句数
+	 */
+	private void addClause(List<BooleanClause> clauses, BooleanClause clause,
+			int minimumNumberShouldMatch) {
+		if ((clause.getOccur() == Occur.SHOULD && minimumNumberShouldMatch != 0)
+				|| !clauses.contains(clause)) {
+			clauses.add(clause);
+		}
+	}
+
+	/**
+	 * 已有其它必须满足的子句时，去除必须满足的匹配所有文档子句。
+	 * 
+	 * @param clauses
+	 *            子句列表
+	 */
+	private void removeRedundantMatchAll(List<BooleanClause> clauses) {
+		boolean hasOtherMust = false;
+		for (BooleanClause clause : clauses) {
+			if (clause.getOccur() == Occur.MUST && !isMatchAll(clause)) {
+				hasOtherMust = true;
+				break;
+			}
+		}
+		if (!hasOtherMust) {
+			return;
+		}
+		Iterator<BooleanClause> iterator = clauses.iterator();
+		while (iterator.hasNext()) {
+			if (isMatchAll(iterator.next())) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * 判断子句是否是必须满足的匹配所有文档子句。
+	 * 
+	 * @param clause
+	 *            子句
+	 * @return 返回子句是否是必须满足的匹配所有文档子句。
+	 */
+	private boolean isMatchAll(BooleanClause clause) {
+		return clause.getOccur() == Occur.MUST
+				&& clause.getQuery() instanceof MatchAllDocsQuery;
+	}
+}
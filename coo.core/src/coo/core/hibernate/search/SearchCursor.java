@@ -0,0 +1,245 @@
+package coo.core.hibernate.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.BytesRef;
+
+import coo.base.exception.UncheckedException;
+import coo.base.util.StringUtils;
+
+/**
+ * 全文搜索游标工具类。<br/>
+ * 将Lucene排序位置（文档编号、评分和排序字段值）编码为可以在URL中传递的不透明游标，翻页时解码后作为searchAfter的起点。<br/>
+ * 游标中同时记录了生成游标时的排序（字段名、类型和是否倒序），排序改变或排序字段值与排序不匹配的游标视为无效。
+ */
+public abstract class SearchCursor {
+	private static final byte NULL = 0;
+	private static final byte BYTES = 1;
+	private static final byte INT = 2;
+	private static final byte LONG = 3;
+	private static final byte FLOAT = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte STRING = 6;
+
+	/**
+	 * 将Lucene排序位置编码为游标。
+	 * 
+	 * @param fieldDoc
+	 *            Lucene排序位置
+	 * @param sort
+	 *            生成排序位置时的排序
+	 * @return 返回游标。
+	 */
+	public static String encode(FieldDoc fieldDoc, Sort sort) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(getSignature(sort));
+			out.writeInt(fieldDoc.doc);
+			out.writeFloat(fieldDoc.score);
+			out.writeInt(fieldDoc.fields.length);
+			for (Object field : fieldDoc.fields) {
+				writeField(out, field);
+			}
+			out.close();
+			return Base64.encodeBase64URLSafeString(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new UncheckedException("编码全文搜索游标时发生异常。", e);
+		}
+	}
+
+	/**
+	 * 将游标解码为Lucene排序位置。
+	 * 
+	 * @param cursor
+	 *            游标
+	 * @param sort
+	 *            当前的排序
+	 * @return 返回Lucene排序位置，游标为空、无效或与当前的排序不匹配时返回null。
+	 */
+	public static FieldDoc decode(String cursor, Sort sort) {
+		if (StringUtils.isBlank(cursor)) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+					Base64.decodeBase64(cursor)));
+			if (getSignature(sort) != in.readInt()) {
+				return null;
+			}
+			int doc = in.readInt();
+			float score = in.readFloat();
+			Object[] fields = new Object[checkLength(in, in.readInt())];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = readField(in);
+			}
+			if (!matches(fields, sort.getSort())) {
+				return null;
+			}
+			return new FieldDoc(doc, score, fields);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 获取排序的签名，由排序字段名、类型和是否倒序生成，用于判断游标是否是按当前的排序生成的。
+	 * 
+	 * @param sort
+	 *            排序
+	 * @return 返回排序的签名。
+	 */
+	private static int getSignature(Sort sort) {
+		return sort.toString().hashCode();
+	}
+
+	/**
+	 * 判断排序字段值的个数和类型是否与排序匹配。
+	 * 
+	 * @param fields
+	 *            排序字段值
+	 * @param sortFields
+	 *            排序字段
+	 * @return 返回排序字段值是否与排序匹配。
+	 */
+	private static Boolean matches(Object[] fields, SortField[] sortFields) {
+		if (fields.length != sortFields.length) {
+			return false;
+		}
+		for (int i = 0; i < fields.length; i++) {
+			Class<?> valueClass = getValueClass(sortFields[i].getType());
+			if (valueClass == null || fields[i] != null
+					&& !valueClass.isInstance(fields[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 获取排序字段类型对应的排序字段值类型。
+	 * 
+	 * @param type
+	 *            排序字段类型
+	 * @return 返回排序字段值类型，不支持的排序字段类型返回null。
+	 */
+	private static Class<?> getValueClass(SortField.Type type) {
+		switch (type) {
+		case SCORE:
+		case FLOAT:
+			return Float.class;
+		case DOC:
+		case INT:
+			return Integer.class;
+		case LONG:
+			return Long.class;
+		case DOUBLE:
+			return Double.class;
+		case STRING:
+		case STRING_VAL:
+			return BytesRef.class;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * 检查从游标中读取的长度，防止无效的游标导致分配过大的数组。
+	 * 
+	 * @param in
+	 *            输入流
+	 * @param length
+	 *            长度
+	 * @return 返回长度。
+	 * @throws IOException
+	 *             长度超出剩余字节数时抛出异常
+	 */
+	private static int checkLength(DataInputStream in, int length)
+			throws IOException {
+		if (length < 0 || length > in.available()) {
+			throw new IOException("无效的长度：" + length);
+		}
+		return length;
+	}
+
+	/**
+	 * 写入排序字段值。
+	 * 
+	 * @param out
+	 *            输出流
+	 * @param field
+	 *            排序字段值
+	 * @throws IOException
+	 *             写入失败时抛出异常
+	 */
+	private static void writeField(DataOutputStream out, Object field)
+			throws IOException {
+		if (field == null) {
+			out.writeByte(NULL);
+		} else if (field instanceof BytesRef) {
+			BytesRef bytesRef = (BytesRef) field;
+			out.writeByte(BYTES);
+			out.writeInt(bytesRef.length);
+			out.write(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+		} else if (field instanceof Integer) {
+			out.writeByte(INT);
+			out.writeInt((Integer) field);
+		} else if (field instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) field);
+		} else if (field instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) field);
+		} else if (field instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) field);
+		} else if (field instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) field);
+		} else {
+			throw new UncheckedException("不支持的排序字段值类型："
+					+ field.getClass().getName());
+		}
+	}
+
+	/**
+	 * 读取排序字段值。
+	 * 
+	 * @param in
+	 *            输入流
+	 * @return 返回排序字段值。
+	 * @throws IOException
+	 *             读取失败时抛出异常
+	 */
+	private static Object readField(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case BYTES:
+			byte[] bytes = new byte[checkLength(in, in.readInt())];
+			in.readFully(bytes);
+			return new BytesRef(bytes);
+		case INT:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case FLOAT:
+			return in.readFloat();
+		case DOUBLE:
+			return in.readDouble();
+		case STRING:
+			return in.readUTF();
+		default:
+			throw new IOException("无效的排序字段值类型：" + type);
+		}
+	}
+}
@@ -7,10 +7,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
+import org.hibernate.criterion.Restrictions;
 import org.hibernate.engine.spi.SessionImplementor;
 
 import coo.base.util.StringUtils;
@@ -35,12 +41,7 @@ public class UuidEntityListUserType extends AbstractUserType {
 						.getGenericType();
 				Class<? extends UuidEntity> uuidEntityClass = (Class<? extends UuidEntity>) parameterizedType
 						.getActualTypeArguments()[0];
-				List<Object> entities = new ArrayList<Object>();
-				for (String entityId : value.split(",")) {
-					entities.add(((Session) session).get(uuidEntityClass,
-							entityId));
-				}
-				return entities;
+				return getEntities(session, uuidEntityClass, value.split(","));
 			} else {
 				return new ArrayList<UuidEntity>();
 			}
@@ -49,6 +50,35 @@ public class UuidEntityListUserType extends AbstractUserType {
 		}
 	}
 
+	/**
+	 * 使用当前Session以一条查询批量加载实体，返回的列表按ID的顺序排列，不存在的ID对应位置为null。
+	 * 
+	 * @param session
+	 *            当前Session
+	 * @param uuidEntityClass
+	 *            实体类
+	 * @param entityIds
+	 *            实体ID
+	 * @return 返回实体列表。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Object> getEntities(SessionImplementor session,
+			Class<? extends UuidEntity> uuidEntityClass, String[] entityIds) {
+		Map<String, UuidEntity> entityMap = new HashMap<String, UuidEntity>();
+		List<UuidEntity> loadedEntities = ((Session) session)
+				.createCriteria(uuidEntityClass).setFlushMode(FlushMode.MANUAL)
+				.add(Restrictions.in("id", new HashSet<String>(Arrays
+						.asList(entityIds)))).list();
+		for (UuidEntity entity : loadedEntities) {
+			entityMap.put(entity.getId(), entity);
+		}
+		List<Object> entities = new ArrayList<Object>();
+		for (String entityId : entityIds) {
+			entities.add(entityMap.get(entityId));
+		}
+		return entities;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public void nullSafeSet(PreparedStatement st, Object value, int index,
@@ -2,6 +2,7 @@ package coo.core.model;
 
 import java.util.Date;
 
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermRangeQuery;
 import org.joda.time.DateTime;
@@ -19,7 +20,8 @@ public class DateRangeSearchModel extends SearchModel {
 	private Date endDate;
 
 	/**
-	 * 生成日期区间全文搜索查询对象。
+	 * 生成日期区间全文搜索查询对象。<br/>
+	 * 查询对象不参与评分，日期区间由用户任意指定，重复使用的可能性较小，因此不缓存过滤结果。
 	 * 
 	 * @param searchField
 	 *            待查询的全文搜索字段
@@ -43,8 +45,8 @@ public class DateRangeSearchModel extends SearchModel {
 			endDateStr = DateUtils.format(endDateTime.toDate(),
 					DateUtils.MILLISECOND_N);
 		}
-		return TermRangeQuery.newStringRange(searchField, startDateStr,
-				endDateStr, true, false);
+		return new ConstantScoreQuery(TermRangeQuery.newStringRange(
+				searchField, startDateStr, endDateStr, true, false));
 	}
 
 	public Date getStartDate() {
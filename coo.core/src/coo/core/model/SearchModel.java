@@ -15,6 +15,8 @@ public class SearchModel {
 	protected String sort;
 	/** 全文检索关键字 */
 	protected String keyword;
+	/** 游标分页游标 */
+	protected String cursor;
 
 	public Integer getPageNo() {
 		return pageNo;
@@ -55,4 +57,12 @@ public class SearchModel {
 	public void setKeyword(String keyword) {
 		this.keyword = keyword;
 	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
 }
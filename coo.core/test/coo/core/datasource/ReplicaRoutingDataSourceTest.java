@@ -0,0 +1,123 @@
+package coo.core.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import coo.core.hibernate.dao.ReadOnlyTaskExecutor;
+
+public class ReplicaRoutingDataSourceTest {
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate writeTemplate;
+	private TransactionTemplate readTemplate;
+	private ReadOnlyTaskExecutor taskExecutor;
+
+	@Before
+	public void setUp() throws Exception {
+		List<DataSource> replicas = new ArrayList<DataSource>();
+		replicas.add(createDataSource("replica1"));
+		replicas.add(createDataSource("replica2"));
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource();
+		routingDataSource.setPrimary(createDataSource("primary"));
+		routingDataSource.setReplicas(replicas);
+		routingDataSource.afterPropertiesSet();
+
+		DataSource dataSource = new LazyConnectionDataSourceProxy(
+				routingDataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(
+				dataSource);
+		writeTemplate = new TransactionTemplate(transactionManager);
+		readTemplate = new TransactionTemplate(transactionManager);
+		readTemplate.setReadOnly(true);
+		taskExecutor = new ReadOnlyTaskExecutor();
+		taskExecutor.setTransactionManager(transactionManager);
+		taskExecutor.afterPropertiesSet();
+		ReplicaContext.clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		taskExecutor.destroy();
+		ReplicaContext.clear();
+	}
+
+	@Test
+	public void testRoute() {
+		Assert.assertEquals("primary", query(writeTemplate));
+		ReplicaContext.clear();
+		Assert.assertEquals("replica1", query(readTemplate));
+		Assert.assertEquals("replica2", query(readTemplate));
+		Assert.assertEquals("replica1", query(readTemplate));
+		Assert.assertEquals("primary", jdbcTemplate.queryForObject(
+				"select name from db", String.class));
+	}
+
+	@Test
+	public void testStickToPrimary() {
+		ReplicaContext.begin();
+		Assert.assertEquals("replica1", query(readTemplate));
+		Assert.assertEquals("primary", query(writeTemplate));
+		Assert.assertEquals("primary", query(readTemplate));
+		ReplicaContext.clear();
+		Assert.assertEquals("replica2", query(readTemplate));
+	}
+
+	@Test
+	public void testClearAfterTransaction() {
+		Assert.assertEquals("primary", query(writeTemplate));
+		Assert.assertFalse(ReplicaContext.isPrimarySticky());
+		Assert.assertEquals("replica1", query(readTemplate));
+	}
+
+	@Test
+	public void testStickToPrimaryInTask() throws Exception {
+		Callable<String> task = new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return jdbcTemplate.queryForObject("select name from db",
+						String.class);
+			}
+		};
+		Assert.assertEquals("replica1", taskExecutor.submit(task).get());
+		ReplicaContext.begin();
+		Assert.assertEquals("primary", query(writeTemplate));
+		Assert.assertEquals("primary", taskExecutor.submit(task).get());
+		ReplicaContext.clear();
+		Assert.assertEquals("replica2", taskExecutor.submit(task).get());
+	}
+
+	private String query(TransactionTemplate template) {
+		return template.execute(new TransactionCallback<String>() {
+			@Override
+			public String doInTransaction(TransactionStatus status) {
+				return jdbcTemplate.queryForObject("select name from db",
+						String.class);
+			}
+		});
+	}
+
+	private DataSource createDataSource(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("drop table if exists db");
+		template.execute("create table db (name varchar(20))");
+		template.update("insert into db values (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,74 @@
+package coo.core.hibernate.dao;
+
+import org.hibernate.SessionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBuilder;
+
+public class CountHqlRewriterTest {
+	private CountHqlRewriter rewriter = new CountHqlRewriter();
+
+	@Test
+	public void testRewrite() {
+		Assert.assertEquals("select count(*) FROM User u WHERE u.enabled = ?",
+				rewriter.rewrite("FROM User u WHERE u.enabled = ? ORDER BY u.name"));
+		Assert.assertEquals(
+				"select count(*) from User u where u.id in (select a.user.id from Actor a order by a.name)",
+				rewriter.rewrite("select u from User u\n\twhere u.id in (select a.user.id from Actor a order by a.name)\n\torder by u.name"));
+		Assert.assertEquals("select count(*) from User u where u.name = 'a  b'",
+				rewriter.rewrite("from User u where u.name = 'a  b'"));
+	}
+
+	@Test
+	public void testRewriteDistinct() {
+		Assert.assertEquals(
+				"select count(distinct u.id) from User u join u.roles r where r.name = ?",
+				rewriter.rewrite("select distinct u from User u join u.roles r where r.name = ?"));
+		Assert.assertEquals(
+				"select count(distinct u.organ.id) from User u",
+				rewriter.rewrite("select distinct u.organ.id from User u order by u.organ.id"));
+		Assert.assertNull(rewriter
+				.rewrite("select distinct u.name, u.code from User u"));
+	}
+
+	@Test
+	public void testRewriteFetch() {
+		Assert.assertEquals(
+				"select count(distinct u.id) from User u left join u.roles r inner join u.organ",
+				rewriter.rewrite("from User u left join fetch u.roles r inner join fetch u.organ order by u.name"));
+		Assert.assertEquals(
+				"select count(distinct u.id) from User u left join u.settings",
+				rewriter.rewrite("select u from User u left join fetch u.settings"));
+	}
+
+	@Test
+	public void testRewriteIdentifier() {
+		LocalSessionFactoryBuilder builder = new LocalSessionFactoryBuilder(
+				new DriverManagerDataSource(
+						"jdbc:h2:mem:countHqlRewriterTest;DB_CLOSE_DELAY=-1",
+						"sa", ""));
+		builder.addAnnotatedClass(Account.class);
+		builder.setProperty("hibernate.dialect",
+				"org.hibernate.dialect.H2Dialect");
+		builder.setProperty("hibernate.search.autoregister_listeners",
+				"false");
+		SessionFactory sessionFactory = builder.buildSessionFactory();
+		try {
+			Assert.assertEquals(
+					"select count(distinct a.code) from Account a where a.name = ?",
+					rewriter.rewrite(
+							"select distinct a from Account a where a.name = ?",
+							sessionFactory));
+		} finally {
+			sessionFactory.close();
+		}
+	}
+
+	@Test
+	public void testUnsupported() {
+		Assert.assertNull(rewriter
+				.rewrite("select u.organ, count(u) from User u group by u.organ"));
+		Assert.assertNull(rewriter.rewrite("from User u where"));
+	}
+}
@@ -0,0 +1,162 @@
+package coo.core.hibernate.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate4.HibernateTransactionManager;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import coo.base.util.BeanUtils;
+
+public class DaoRemoveTest {
+	private SessionFactory sessionFactory;
+	private TransactionTemplate transactionTemplate;
+	private Dao<TreeNode> dao;
+
+	@Before
+	public void setUp() throws Exception {
+		LocalSessionFactoryBuilder builder = new LocalSessionFactoryBuilder(
+				new DriverManagerDataSource(
+						"jdbc:h2:mem:daoRemoveTest;DB_CLOSE_DELAY=-1", "sa", ""));
+		builder.addAnnotatedClass(TreeNode.class);
+		builder.setProperty("hibernate.dialect",
+				"org.hibernate.dialect.H2Dialect");
+		builder.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+		builder.setProperty("hibernate.search.default.directory_provider",
+				"ram");
+		sessionFactory = builder.buildSessionFactory();
+		HibernateTransactionManager transactionManager = new HibernateTransactionManager(
+				sessionFactory);
+		transactionManager.afterPropertiesSet();
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		dao = new Dao<TreeNode>(TreeNode.class);
+		BeanUtils.setField(dao, "sessionFactory", sessionFactory);
+	}
+
+	@After
+	public void tearDown() {
+		sessionFactory.close();
+	}
+
+	@Test
+	public void testRemoveProxies() {
+		final List<String> childIds = new ArrayList<String>();
+		execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				for (int i = 0; i < 3; i++) {
+					TreeNode root = new TreeNode("root" + i, null);
+					dao.save(root);
+					TreeNode child = new TreeNode("child" + i, root);
+					dao.save(child);
+					childIds.add(child.getId());
+				}
+				return null;
+			}
+		});
+		execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				List<TreeNode> parents = new ArrayList<TreeNode>();
+				for (String childId : childIds) {
+					TreeNode parent = dao.get(childId).getParent();
+					Assert.assertFalse(Hibernate.isInitialized(parent));
+					parents.add(parent);
+				}
+				dao.remove(parents);
+				return null;
+			}
+		});
+		Assert.assertEquals(0, countNodes());
+	}
+
+	@Test
+	public void testRemoveSelfReferencingTree() {
+		final List<String> ids = new ArrayList<String>();
+		execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				// 节点数超过一批删除的ID数，上下级节点分在不同的delete语句中
+				TreeNode parent = null;
+				for (int i = 0; i < 600; i++) {
+					parent = new TreeNode("node" + i, parent);
+					dao.save(parent);
+					ids.add(parent.getId());
+				}
+				return null;
+			}
+		});
+		execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				// 上下级节点同时在待删除的ID中，并且上级节点在前
+				dao.removeAll(ids);
+				return null;
+			}
+		});
+		Assert.assertEquals(0, countNodes());
+	}
+
+	@Test
+	public void testRemoveCyclicReferences() {
+		final List<String> ids = new ArrayList<String>();
+		execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				TreeNode first = new TreeNode("first", null);
+				dao.save(first);
+				TreeNode second = new TreeNode("second", first);
+				dao.save(second);
+				first.setParent(second);
+				ids.add(first.getId());
+				ids.add(second.getId());
+				return null;
+			}
+		});
+		execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				dao.removeAll(ids);
+				return null;
+			}
+		});
+		Assert.assertEquals(0, countNodes());
+	}
+
+	/**
+	 * 执行事务。
+	 * 
+	 * @param callback
+	 *            事务回调
+	 * @return 返回事务回调的结果。
+	 */
+	private <R> R execute(TransactionCallback<R> callback) {
+		return transactionTemplate.execute(callback);
+	}
+
+	/**
+	 * 统计节点数。
+	 * 
+	 * @return 返回节点数。
+	 */
+	private long countNodes() {
+		return execute(new TransactionCallback<Long>() {
+			@Override
+			public Long doInTransaction(TransactionStatus status) {
+				return (Long) dao.getSession()
+						.createQuery("select count(*) from TreeNode")
+						.uniqueResult();
+			}
+		});
+	}
+}
@@ -0,0 +1,84 @@
+package coo.core.hibernate.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HqlUtilsTest {
+	@Test
+	public void testAddCondition() {
+		Assert.assertEquals("from User where enabled = ?",
+				HqlUtils.addCondition("from User", "enabled = ?"));
+		Assert.assertEquals(
+				"from User u where (u.name like ?) and u.enabled = ? order by u.name",
+				HqlUtils.addCondition("from User u where u.name like ? order by u.name",
+						"u.enabled = ?"));
+		Assert.assertEquals(
+				"from User u where (u.id in (select a.user.id from Actor a where a.name = ?)) and u.enabled = ?",
+				HqlUtils.addCondition(
+						"from User u where u.id in (select a.user.id from Actor a where a.name = ?)",
+						"u.enabled = ?"));
+		Assert.assertEquals("from User u where u.enabled = ? group by u.name",
+				HqlUtils.addCondition("from User u group by u.name",
+						"u.enabled = ?"));
+	}
+
+	@Test
+	public void testRemoveOrderBy() {
+		Assert.assertEquals("from User u",
+				HqlUtils.removeOrderBy("from User u ORDER  BY u.name desc"));
+		Assert.assertEquals("from User u where u.orderBy = ?",
+				HqlUtils.removeOrderBy("from User u where u.orderBy = ?"));
+	}
+
+	@Test
+	public void testAddJoin() {
+		Assert.assertEquals(
+				"from User u left join u.creator c where u.enabled = ? order by u.name",
+				HqlUtils.addJoin("from User u where u.enabled = ? order by u.name",
+						"left join u.creator c"));
+		Assert.assertEquals("from User u left join u.creator c order by u.name",
+				HqlUtils.addJoin("from User u order by u.name",
+						"left join u.creator c"));
+	}
+
+	@Test
+	public void testReplaceSelect() {
+		Assert.assertEquals("select u.name as name from User u",
+				HqlUtils.replaceSelect("select u from User u",
+						"select u.name as name"));
+		Assert.assertEquals("select u.name as name from User u",
+				HqlUtils.replaceSelect("from User u", "select u.name as name"));
+	}
+
+	@Test
+	public void testRemoveFetch() {
+		Assert.assertEquals("select u from User u left join u.roles r",
+				HqlUtils.removeFetch("select u from User u"
+						+ " left join fetch u.roles r"));
+		Assert.assertEquals("from User u where u.name = 'fetch'",
+				HqlUtils.removeFetch("from User u fetch all properties"
+						+ " where u.name = 'fetch'"));
+		Assert.assertEquals("from User u where u.fetch = ?",
+				HqlUtils.removeFetch("from User u where u.fetch = ?"));
+	}
+
+	@Test
+	public void testIsDistinct() {
+		Assert.assertTrue(HqlUtils.isDistinct("select distinct u from User u"));
+		Assert.assertTrue(HqlUtils
+				.isDistinct("SELECT  DISTINCT u from User u"));
+		Assert.assertFalse(HqlUtils.isDistinct("select u from User u"));
+		Assert.assertFalse(HqlUtils.isDistinct("from User u"
+				+ " where u.id in (select distinct r.id from Role r)"));
+	}
+
+	@Test
+	public void testGetRootAlias() {
+		Assert.assertEquals("u", HqlUtils.getRootAlias("from User u"));
+		Assert.assertEquals("u",
+				HqlUtils.getRootAlias("select u from User as u where u.id = ?"));
+		Assert.assertEquals("u", HqlUtils.getRootAlias("from User u, Role r"));
+		Assert.assertNull(HqlUtils.getRootAlias("from User where id = ?"));
+		Assert.assertNull(HqlUtils.getRootAlias("from User"));
+	}
+}
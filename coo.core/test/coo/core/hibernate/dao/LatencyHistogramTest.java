@@ -0,0 +1,39 @@
+package coo.core.hibernate.dao;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+	@Test
+	public void testPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(Long.valueOf(0), histogram.getPercentile(99));
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000);
+		}
+		Assert.assertEquals(Long.valueOf(1000), histogram.getCount());
+		Assert.assertEquals(Long.valueOf(500500), histogram.getMean());
+		Assert.assertEquals(Long.valueOf(1000000), histogram.getMax());
+		assertNear(500000, histogram.getPercentile(50));
+		assertNear(990000, histogram.getPercentile(99));
+		Assert.assertEquals(Long.valueOf(1000000),
+				histogram.getPercentile(100));
+	}
+
+	@Test
+	public void testSmallValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 16; i++) {
+			histogram.record(i);
+		}
+		Assert.assertEquals(Long.valueOf(7), histogram.getPercentile(50));
+		Assert.assertEquals(Long.valueOf(15), histogram.getPercentile(100));
+		histogram.reset();
+		Assert.assertEquals(Long.valueOf(0), histogram.getCount());
+	}
+
+	private void assertNear(long expected, Long actual) {
+		Assert.assertTrue(actual + "", actual >= expected
+				&& actual <= expected + expected / 16);
+	}
+}
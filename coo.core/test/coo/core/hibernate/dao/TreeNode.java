@@ -0,0 +1,53 @@
+package coo.core.hibernate.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.CascadeType;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+
+import coo.core.model.UuidEntity;
+
+@Entity
+public class TreeNode extends UuidEntity {
+	private String name;
+	@ManyToOne(fetch = FetchType.LAZY)
+	private TreeNode parent;
+	@OneToMany(mappedBy = "parent", cascade = CascadeType.ALL)
+	private List<TreeNode> childs = new ArrayList<TreeNode>();
+
+	public TreeNode() {
+	}
+
+	public TreeNode(String name, TreeNode parent) {
+		this.name = name;
+		this.parent = parent;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public TreeNode getParent() {
+		return parent;
+	}
+
+	public void setParent(TreeNode parent) {
+		this.parent = parent;
+	}
+
+	public List<TreeNode> getChilds() {
+		return childs;
+	}
+
+	public void setChilds(List<TreeNode> childs) {
+		this.childs = childs;
+	}
+}
@@ -0,0 +1,38 @@
+package coo.core.hibernate.detector;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+
+import coo.core.model.UuidEntity;
+
+@Entity
+public class Document extends UuidEntity {
+	private String title;
+	@ManyToOne(fetch = FetchType.LAZY)
+	private Folder folder;
+
+	public Document() {
+	}
+
+	public Document(String title, Folder folder) {
+		this.title = title;
+		this.folder = folder;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public Folder getFolder() {
+		return folder;
+	}
+
+	public void setFolder(Folder folder) {
+		this.folder = folder;
+	}
+}
@@ -0,0 +1,32 @@
+package coo.core.hibernate.detector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.Entity;
+import javax.persistence.OneToMany;
+
+import coo.core.model.UuidEntity;
+
+@Entity
+public class Folder extends UuidEntity {
+	private String name;
+	@OneToMany(mappedBy = "folder")
+	private List<Document> documents = new ArrayList<Document>();
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public List<Document> getDocuments() {
+		return documents;
+	}
+
+	public void setDocuments(List<Document> documents) {
+		this.documents = documents;
+	}
+}
@@ -0,0 +1,112 @@
+package coo.core.hibernate.detector;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate4.HibernateTransactionManager;
+import org.springframework.orm.hibernate4.LocalSessionFactoryBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import coo.base.exception.UncheckedException;
+
+public class NPlusOneDetectorTest {
+	private SessionFactory sessionFactory;
+	private TransactionTemplate transactionTemplate;
+	private NPlusOneDetector detector;
+
+	@Before
+	public void setUp() throws Exception {
+		detector = new NPlusOneDetector();
+		detector.setEnabled(true);
+		detector.setRepeatThreshold(3);
+		LocalSessionFactoryBuilder builder = new LocalSessionFactoryBuilder(
+				new DriverManagerDataSource(
+						"jdbc:h2:mem:nPlusOneDetectorTest;DB_CLOSE_DELAY=-1",
+						"sa", ""));
+		builder.addAnnotatedClass(Folder.class);
+		builder.addAnnotatedClass(SharedFolder.class);
+		builder.addAnnotatedClass(Document.class);
+		builder.setProperty("hibernate.dialect",
+				"org.hibernate.dialect.H2Dialect");
+		builder.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+		builder.setProperty("hibernate.search.autoregister_listeners",
+				"false");
+		builder.setInterceptor(detector);
+		sessionFactory = builder.buildSessionFactory();
+		detector.register(sessionFactory);
+		HibernateTransactionManager transactionManager = new HibernateTransactionManager(
+				sessionFactory);
+		transactionManager.afterPropertiesSet();
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				for (int i = 0; i < 3; i++) {
+					SharedFolder folder = new SharedFolder();
+					folder.setName("folder" + i);
+					sessionFactory.getCurrentSession().save(folder);
+					sessionFactory.getCurrentSession().save(
+							new Document("document" + i, folder));
+				}
+				return null;
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		sessionFactory.close();
+	}
+
+	@Test
+	public void testRepeatedLazyLoad() {
+		StatementContext.begin();
+		try {
+			loadDocuments();
+			List<String> violations = StatementContext.get().getViolations();
+			Assert.assertEquals(1, violations.size());
+			// 集合声明在父类中，关联名称仍使用实际的所属实体名称和集合属性名
+			Assert.assertTrue(violations.get(0).contains(
+					"延迟加载关联[SharedFolder.documents]"));
+		} finally {
+			StatementContext.end();
+		}
+	}
+
+	@Test
+	public void testFailOnViolation() {
+		detector.setFailOnViolation(true);
+		try {
+			loadDocuments();
+			Assert.fail("达到阈值时应抛出异常。");
+		} catch (UncheckedException e) {
+			Assert.assertTrue(e.getMessage().contains(
+					"延迟加载关联[SharedFolder.documents]"));
+		}
+	}
+
+	/**
+	 * 查询所有目录后逐个延迟加载目录下的文档。
+	 */
+	private void loadDocuments() {
+		transactionTemplate.execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				@SuppressWarnings("unchecked")
+				List<Folder> folders = sessionFactory.getCurrentSession()
+						.createCriteria(Folder.class).list();
+				for (Folder folder : folders) {
+					folder.getDocuments().size();
+				}
+				return null;
+			}
+		});
+	}
+}
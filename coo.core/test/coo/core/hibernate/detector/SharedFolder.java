@@ -0,0 +1,16 @@
+package coo.core.hibernate.detector;
+
+import javax.persistence.Entity;
+
+@Entity
+public class SharedFolder extends Folder {
+	private String owner;
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+}
@@ -0,0 +1,140 @@
+package coo.core.hibernate.search;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class QueryOptimizerTest {
+	private Logger log = LoggerFactory.getLogger(getClass());
+	private QueryOptimizer optimizer = new QueryOptimizer("id");
+
+	@Test
+	public void testMatchAll() {
+		Assert.assertEquals(new MatchAllDocsQuery(),
+				optimizer.optimize(new WildcardQuery(new Term("id", "*"))));
+		Query query = new WildcardQuery(new Term("name", "*"));
+		Assert.assertEquals(query, optimizer.optimize(query));
+	}
+
+	@Test
+	public void testFlatten() {
+		TermQuery admin = new TermQuery(new Term("id", "admin"));
+		TermQuery enabled = new TermQuery(new Term("enabled", "true"));
+		BooleanQuery nested = new BooleanQuery();
+		nested.add(admin, Occur.MUST_NOT);
+		nested.add(new WildcardQuery(new Term("id", "*")), Occur.MUST);
+		BooleanQuery query = new BooleanQuery();
+		query.add(enabled, Occur.MUST);
+		query.add(nested, Occur.MUST);
+
+		BooleanQuery expected = new BooleanQuery();
+		expected.add(enabled, Occur.MUST);
+		expected.add(admin, Occur.MUST_NOT);
+		Assert.assertEquals(expected, optimizer.optimize(query));
+	}
+
+	@Test
+	public void testKeepNegative() {
+		TermQuery admin = new TermQuery(new Term("id", "admin"));
+		BooleanQuery query = new BooleanQuery();
+		query.add(new MatchAllDocsQuery(), Occur.MUST);
+		query.add(admin, Occur.MUST_NOT);
+		Assert.assertEquals(query, optimizer.optimize(query));
+
+		BooleanQuery negative = new BooleanQuery();
+		negative.add(admin, Occur.MUST_NOT);
+		BooleanQuery parent = new BooleanQuery();
+		parent.add(new TermQuery(new Term("name", "a")), Occur.SHOULD);
+		parent.add(negative, Occur.MUST);
+		Assert.assertEquals(parent, optimizer.optimize(parent));
+	}
+
+	@Test
+	public void testCollapse() {
+		TermQuery status = new TermQuery(new Term("status", "1"));
+		BooleanQuery single = new BooleanQuery();
+		single.add(status, Occur.SHOULD);
+		single.add(status, Occur.SHOULD);
+		Assert.assertEquals(status, optimizer.optimize(single));
+
+		BooleanQuery wrapper = new BooleanQuery();
+		wrapper.add(new MatchAllDocsQuery(), Occur.MUST);
+		wrapper.add(single, Occur.MUST);
+		Assert.assertEquals(status, optimizer.optimize(wrapper));
+	}
+
+	@Test
+	public void testKeepShouldWithMinimumMatch() {
+		TermQuery status = new TermQuery(new Term("status", "1"));
+		BooleanQuery query = new BooleanQuery();
+		query.add(status, Occur.SHOULD);
+		query.add(status, Occur.SHOULD);
+		query.add(new TermQuery(new Term("status", "2")), Occur.SHOULD);
+		query.setMinimumNumberShouldMatch(2);
+		Assert.assertEquals(query, optimizer.optimize(query));
+	}
+
+	/**
+	 * 对比“id:*”和优化后的MatchAllDocsQuery的匹配耗时。
+	 */
+	@Test
+	public void benchmarkMatchAll() throws Exception {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(
+				Version.LUCENE_4_10_2, new KeywordAnalyzer()));
+		for (int i = 0; i < 50000; i++) {
+			Document document = new Document();
+			document.add(new StringField("id", String.format("%032d", i),
+					Store.NO));
+			writer.addDocument(document);
+		}
+		writer.close();
+		DirectoryReader reader = DirectoryReader.open(directory);
+		IndexSearcher searcher = new IndexSearcher(reader);
+		Query wildcardQuery = new WildcardQuery(new Term("id", "*"));
+		Query optimizedQuery = optimizer.optimize(wildcardQuery);
+		Assert.assertEquals(count(searcher, wildcardQuery),
+				count(searcher, optimizedQuery));
+		long wildcardNanos = time(searcher, wildcardQuery);
+		long optimizedNanos = time(searcher, optimizedQuery);
+		log.info("匹配50000个文档20次，id:*耗时{}微秒，MatchAllDocsQuery耗时{}微秒。",
+				wildcardNanos / 1000, optimizedNanos / 1000);
+		reader.close();
+	}
+
+	private int count(IndexSearcher searcher, Query query) throws Exception {
+		TotalHitCountCollector collector = new TotalHitCountCollector();
+		searcher.search(query, collector);
+		return collector.getTotalHits();
+	}
+
+	private long time(IndexSearcher searcher, Query query) throws Exception {
+		for (int i = 0; i < 5; i++) {
+			count(searcher, query);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < 20; i++) {
+			count(searcher, query);
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,48 @@
+package coo.core.hibernate.search;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchCursorTest {
+	private Sort nameSort = new Sort(new SortField("name",
+			SortField.Type.STRING), new SortField("id", SortField.Type.STRING));
+	private Sort rankSort = new Sort(
+			new SortField("rank", SortField.Type.INT), new SortField("id",
+					SortField.Type.STRING));
+
+	@Test
+	public void testEncodeAndDecode() {
+		FieldDoc fieldDoc = new FieldDoc(3, 1.5f, new Object[] {
+				new BytesRef("a"), new BytesRef("1") });
+		FieldDoc decoded = SearchCursor.decode(
+				SearchCursor.encode(fieldDoc, nameSort), nameSort);
+		Assert.assertEquals(3, decoded.doc);
+		Assert.assertArrayEquals(fieldDoc.fields, decoded.fields);
+	}
+
+	@Test
+	public void testSortMismatch() {
+		FieldDoc fieldDoc = new FieldDoc(3, 1.5f, new Object[] {
+				new BytesRef("a"), new BytesRef("1") });
+		String cursor = SearchCursor.encode(fieldDoc, nameSort);
+		Assert.assertNull(SearchCursor.decode(cursor, rankSort));
+		Assert.assertNull(SearchCursor.decode(cursor, new Sort(new SortField(
+				"name", SortField.Type.STRING, true), new SortField("id",
+				SortField.Type.STRING))));
+	}
+
+	@Test
+	public void testFieldMismatch() {
+		Assert.assertNull(SearchCursor.decode(SearchCursor.encode(
+				new FieldDoc(3, 1.5f, new Object[] { new BytesRef("1") }),
+				nameSort), nameSort));
+		Assert.assertNull(SearchCursor.decode(SearchCursor.encode(
+				new FieldDoc(3, 1.5f, new Object[] { 1L, new BytesRef("1") }),
+				rankSort), rankSort));
+		Assert.assertNull(SearchCursor.decode("invalid", nameSort));
+	}
+}
@@ -10,6 +10,7 @@ import coo.mvc.converter.ParamsToString;
 import coo.mvc.converter.StringToIEnum;
 import coo.mvc.converter.StringToParams;
 import coo.mvc.converter.StringToUuidEntity;
+import coo.mvc.converter.StringToUuidEntityList;
 import coo.mvc.converter.UuidEntityToString;
 
 /**
@@ -25,6 +26,7 @@ public class ConversionConfigurer extends AbstractConversionConfigurer {
 		conversionService.addConverter(new StringToParams());
 		conversionService.addConverter(new ParamsToString());
 		conversionService.addConverterFactory(new StringToUuidEntity());
+		conversionService.addConverter(new StringToUuidEntityList());
 		conversionService.addConverter(new UuidEntityToString());
 
 		conversionService
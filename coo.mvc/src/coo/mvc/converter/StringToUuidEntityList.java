@@ -0,0 +1,62 @@
+package coo.mvc.converter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.ConditionalGenericConverter;
+
+import coo.base.util.StringUtils;
+import coo.core.hibernate.dao.DaoUtils;
+import coo.core.model.UuidEntity;
+
+/**
+ * 字符串或字符串数组转换成UuidEntity集合转换器。<br/>
+ * 所有ID通过一次批量查询获取，避免逐个转换集合元素时对每个ID分别查询。
+ */
+public class StringToUuidEntityList implements ConditionalGenericConverter {
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		Set<ConvertiblePair> convertibleTypes = new HashSet<ConvertiblePair>();
+		convertibleTypes.add(new ConvertiblePair(String.class,
+				Collection.class));
+		convertibleTypes.add(new ConvertiblePair(String[].class,
+				Collection.class));
+		return convertibleTypes;
+	}
+
+	@Override
+	public boolean matches(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		TypeDescriptor elementType = targetType.getElementTypeDescriptor();
+		return elementType != null
+				&& UuidEntity.class.isAssignableFrom(elementType.getType());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object convert(Object source, TypeDescriptor sourceType,
+			TypeDescriptor targetType) {
+		if (source == null) {
+			return null;
+		}
+		String[] values = source instanceof String ? ((String) source)
+				.split(",") : (String[]) source;
+		List<String> ids = new ArrayList<String>();
+		for (String value : values) {
+			if (StringUtils.isNotBlank(value)) {
+				ids.add(value.trim());
+			}
+		}
+		Collection<Object> entities = CollectionFactory.createCollection(
+				targetType.getType(), ids.size());
+		if (!ids.isEmpty()) {
+			entities.addAll(DaoUtils.getEntities(targetType
+					.getElementTypeDescriptor().getType(), ids));
+		}
+		return entities;
+	}
+}
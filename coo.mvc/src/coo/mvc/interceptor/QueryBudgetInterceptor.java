@@ -0,0 +1,27 @@
+package coo.mvc.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import coo.core.hibernate.detector.QueryBudget;
+
+/**
+ * 查询预算拦截器。在请求开始时按默认限制开始查询预算，请求结束（包括视图渲染）后结束，使查询预算覆盖整个请求。
+ */
+public class QueryBudgetInterceptor extends HandlerInterceptorAdapter {
+	@Override
+	public boolean preHandle(HttpServletRequest request,
+			HttpServletResponse response, Object handler) throws Exception {
+		QueryBudget.begin(request.getRequestURI());
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request,
+			HttpServletResponse response, Object handler, Exception ex)
+			throws Exception {
+		QueryBudget.end();
+	}
+}
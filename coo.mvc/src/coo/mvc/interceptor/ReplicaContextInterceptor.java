@@ -0,0 +1,27 @@
+package coo.mvc.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import coo.core.datasource.ReplicaContext;
+
+/**
+ * 读库路由上下文拦截器。在请求开始时开始请求范围的读库路由上下文，在请求结束时清除，使主库粘滞在同一请求的多个事务间有效。
+ */
+public class ReplicaContextInterceptor extends HandlerInterceptorAdapter {
+	@Override
+	public boolean preHandle(HttpServletRequest request,
+			HttpServletResponse response, Object handler) throws Exception {
+		ReplicaContext.begin();
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request,
+			HttpServletResponse response, Object handler, Exception ex)
+			throws Exception {
+		ReplicaContext.clear();
+	}
+}
@@ -0,0 +1,27 @@
+package coo.mvc.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import coo.core.hibernate.detector.StatementContext;
+
+/**
+ * SQL语句统计上下文拦截器。在请求开始时开始统计，请求结束（包括视图渲染）后结束统计，使N+1查询检测覆盖整个请求。
+ */
+public class StatementContextInterceptor extends HandlerInterceptorAdapter {
+	@Override
+	public boolean preHandle(HttpServletRequest request,
+			HttpServletResponse response, Object handler) throws Exception {
+		StatementContext.begin();
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request,
+			HttpServletResponse response, Object handler, Exception ex)
+			throws Exception {
+		StatementContext.end();
+	}
+}
@@ -332,18 +332,14 @@
 <#--
  * 分页导航条。
  *
- * pageModel：分页对象
+ * pageModel：分页对象，未统计总记录数时不显示总记录数；为游标分页对象时只显示上一页和下一页，翻页时通过pagerForm中的cursor参数提交游标。
  * onchange：每页条数选择框的onchange事件。不设置时根据targetType类型自动设置适合的事件函数，设置时将覆盖默认设置。
  * targetType：导航类型（navTab/dialog）
  -->
 <#macro pageNav pageModel onchange targetType="navTab" rel="">
+    <#local pageBreak = (targetType == "dialog")?string("dialogPageBreak", "navTabPageBreak") />
     <#if !onchange??>
-        <#if targetType == "navTab">
-            <#local onchange="navTabPageBreak({numPerPage:this.value}, '${rel}');" />
-        </#if>
-        <#if targetType == "dialog">
-            <#local onchange="dialogPageBreak({numPerPage:this.value}, '${rel}');" />
-        </#if>
+        <#local onchange="${pageBreak}({numPerPage:this.value}, '${rel}');" />
     </#if>
 <div class="pages">
     <span>显示</span>
@@ -351,10 +347,35 @@
     <select name="pageSize" class="combox" onchange="${onchange}">
         <@s.options items=options values=pageModel.size />
     </select>
+    <#if pageModel.counted>
     <span>条，共${pageModel.count}条</span>
+    <#else>
+    <span>条</span>
+    </#if>
+</div>
+<#if pageModel.seek>
+<div class="pagination">
+    <ul>
+        <li class="j-prev<#if pageModel.first> disabled</#if>">
+            <#if pageModel.first>
+            <span class="previous"><span>上一页</span></span>
+            <#else>
+            <a class="previous" href="javascript:;" onclick="${pageBreak}({cursor:'${pageModel.prevCursor}'}, '${rel}');"><span>上一页</span></a>
+            </#if>
+        </li>
+        <li class="j-next<#if pageModel.last> disabled</#if>">
+            <#if pageModel.last>
+            <span class="next"><span>下一页</span></span>
+            <#else>
+            <a class="next" href="javascript:;" onclick="${pageBreak}({cursor:'${pageModel.nextCursor}'}, '${rel}');"><span>下一页</span></a>
+            </#if>
+        </li>
+    </ul>
 </div>
+<#else>
 <div class="pagination" targetType="${targetType}" rel="${rel}" totalCount="${pageModel.count}"
      numPerPage="${pageModel.size}" pageNumShown="10" currentPage="${pageModel.number}"></div>
+</#if>
 </#macro>
 
 <#--
@@ -76,6 +76,19 @@ $.extend(DWZ, {
 /** 覆盖DWZ的翻页参数设置 */
 $.extend(DWZ.pageInfo, {pageNum:"pageNo", numPerPage:"pageSize", orderField:"orderBy", orderDirection:"s"});
 
+/** 覆盖DWZ的获取翻页表单函数，增加游标分页的cursor参数，非游标翻页时清空cursor参数 */
+var _getDwzPagerForm = _getPagerForm;
+_getPagerForm = function($parent, args) {
+	var form = _getDwzPagerForm($parent, args);
+	if (form) {
+		if (!form.cursor) {
+			$('<input type="hidden" name="cursor"/>').appendTo(form);
+		}
+		form.cursor.value = args["cursor"] || "";
+	}
+	return form;
+};
+
 /** 覆盖dwz的输入框提示信息实现函数 */
 (function($){
 	$.fn.extend({